@@ -0,0 +1,58 @@
+package benchmark;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChessBoard housekeeping: resetting, comparing and hashing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    @Param({"middlegame", "endgame"})
+    public String position;
+
+    private ChessBoard board;
+    private ChessBoard equalBoard;
+    private ChessBoard scratch;
+
+    @Setup
+    public void setUp() {
+        board = Fixtures.board(position);
+        equalBoard = Fixtures.board(position);
+        scratch = new ChessBoard();
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        scratch.resetBoard();
+        return scratch;
+    }
+
+    @Benchmark
+    public boolean equalsEqualBoard() {
+        return board.equals(equalBoard);
+    }
+
+    @Benchmark
+    public int hashCodeBoard() {
+        return board.hashCode();
+    }
+}
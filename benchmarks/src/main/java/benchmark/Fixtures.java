@@ -0,0 +1,99 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import passoff.chess.TestUtilities;
+
+/**
+ * Positions the benchmarks run against, written in the same board format as the passoff tests
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param name one of opening, middlegame, endgame, endgame-pieces (an endgame with a white
+     *             piece of every type), checkmate or stalemate
+     * @return a new game in that position, with the side to move set
+     */
+    public static ChessGame game(String name) {
+        ChessGame game = new ChessGame();
+        switch (name) {
+            case "opening" -> {
+                // starting position
+            }
+            case "middlegame" -> game.setBoard(TestUtilities.loadBoard("""
+                    |r| | | | |r|k| |
+                    | |p|p| |q|p|p|p|
+                    |p| |n|p| |n| | |
+                    | | |b| |p| |B| |
+                    | | |B| |P| |b| |
+                    |P| |N|P| |N| | |
+                    | |P|P| |Q|P|P|P|
+                    |R| | | | |R|K| |
+                    """));
+            case "endgame" -> game.setBoard(TestUtilities.loadBoard("""
+                    | | | | | | | | |
+                    | | | | | |p|k| |
+                    | | | | | | |p| |
+                    | | | | | | | | |
+                    | | | |R| | | | |
+                    | | | | | | |P| |
+                    | | | | | |P|K|P|
+                    | | | |r| | | | |
+                    """));
+            case "endgame-pieces" -> game.setBoard(TestUtilities.loadBoard("""
+                    | | | |r| | |k| |
+                    | | | | | |p|p| |
+                    | | | | | | | | |
+                    | | |B| | | | | |
+                    | | | |N| | | | |
+                    | | | | |Q| |P| |
+                    | | | | | |P|K| |
+                    | | | |R| | | | |
+                    """));
+            case "checkmate" -> {
+                // fool's mate, white to move and mated
+                game.setBoard(TestUtilities.loadBoard("""
+                        |r|n|b| |k|b|n|r|
+                        |p|p|p|p| |p|p|p|
+                        | | | | | | | | |
+                        | | | | |p| | | |
+                        | | | | | | |P|q|
+                        | | | | | |P| | |
+                        |P|P|P|P|P| | |P|
+                        |R|N|B|Q|K|B|N|R|
+                        """));
+            }
+            case "stalemate" -> {
+                game.setBoard(TestUtilities.loadBoard("""
+                        |k| | | | | | | |
+                        | | |Q| | | | | |
+                        | | | | | | | | |
+                        | | | | | | | | |
+                        | | | | | | | | |
+                        | | | | | | | | |
+                        | | | | | | | | |
+                        | | | | | | | |K|
+                        """));
+                game.setTeamTurn(ChessGame.TeamColor.BLACK);
+            }
+            default -> throw new IllegalArgumentException("Unknown fixture " + name);
+        }
+        return game;
+    }
+
+    /**
+     * @return a new board in the named position
+     */
+    public static ChessBoard board(String name) {
+        return game(name).getBoard();
+    }
+
+    // a fixture move being rejected means the engine is broken, so fail the run
+    static RuntimeException invalid(InvalidMoveException e) {
+        return new IllegalStateException("Fixture move was rejected", e);
+    }
+}
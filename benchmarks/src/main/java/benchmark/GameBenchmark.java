@@ -0,0 +1,109 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChessGame queries the server runs on every move
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    // knights out and back for both sides, which returns to the starting position
+    private static final ChessMove[] KNIGHT_SHUFFLE = {
+            new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+            new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+            new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+            new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+    };
+
+    @Param({"opening", "middlegame", "endgame", "checkmate", "stalemate"})
+    public String position;
+
+    private ChessGame game;
+    private ChessGame shuffleGame;
+    private ChessPosition[] friendlySquares;
+
+    @Setup
+    public void setUp() {
+        game = Fixtures.game(position);
+        shuffleGame = Fixtures.game("opening");
+        // squares of every piece of the side to move, so validMoves covers the whole position
+        int count = 0;
+        ChessPosition[] squares = new ChessPosition[16];
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    squares[count++] = new ChessPosition(row, col);
+                }
+            }
+        }
+        friendlySquares = Arrays.copyOf(squares, count);
+    }
+
+    @Benchmark
+    public void validMovesAllPieces(Blackhole blackhole) {
+        for (ChessPosition square : friendlySquares) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return game.evaluate();
+    }
+
+    /**
+     * Four makeMove calls per operation, validation included
+     */
+    @Benchmark
+    public ChessGame makeMove() {
+        try {
+            for (ChessMove move : KNIGHT_SHUFFLE) {
+                shuffleGame.makeMove(move);
+            }
+        } catch (InvalidMoveException e) {
+            throw Fixtures.invalid(e);
+        }
+        return shuffleGame;
+    }
+}
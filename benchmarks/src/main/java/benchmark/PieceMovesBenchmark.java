@@ -0,0 +1,67 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChessPiece.pieceMoves for one white piece of each type
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceMovesBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    // both have a white piece of every type
+    @Param({"middlegame", "endgame-pieces"})
+    public String position;
+
+    private ChessBoard board;
+    private ChessPiece piece;
+    private ChessPosition square;
+
+    @Setup
+    public void setUp() {
+        board = Fixtures.board(position);
+        for (int row = 1; row <= 8 && piece == null; row++) {
+            for (int col = 1; col <= 8 && piece == null; col++) {
+                ChessPiece found = board.getPiece(new ChessPosition(row, col));
+                if (found != null && found.getTeamColor() == ChessGame.TeamColor.WHITE
+                        && found.getPieceType() == type) {
+                    piece = found;
+                    square = new ChessPosition(row, col);
+                }
+            }
+        }
+        if (piece == null) {
+            throw new IllegalStateException("No white " + type + " in the " + position + " fixture");
+        }
+    }
+
+    @Benchmark
+    public Collection<ChessMove> pieceMoves() {
+        return piece.pieceMoves(board, square);
+    }
+}
@@ -4,13 +4,14 @@ import java.net.*;
 import java.io.*;
 import java.util.*;
 import model.AuthData;
+import model.ChessGameAdapter;
 import model.GameData;
 import model.UserData;
 import com.google.gson.Gson;
 
 public class ServerFacade {
     private final String serverURL;
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessGameAdapter.gson();
 
     public ServerFacade(int port) {
         this.serverURL = "http://localhost:" + port;
@@ -97,7 +97,7 @@ public class ChessBoardUI {
             for (int col = 0; col < 8; col++) {
                 // row,col=0 is board position (1,1) = a1, spec says bottom left is (a1)
                 // ChessPosition row/col start at 1
-                ChessPosition pos = new ChessPosition(row+1, col+1);
+                ChessPosition pos = ChessPosition.of(row+1, col+1);
                 ChessPiece piece = chessBoard.getPiece(pos);
                 if (piece == null) {
                     board[7-row][col] = '.'; // spec: a1 bottom left = 7,0
@@ -7,6 +7,7 @@ import com.google.gson.Gson;
 import model.UserData;
 import model.GameData;
 import model.AuthData;
+import model.ChessGameAdapter;
 import org.mindrot.jbcrypt.BCrypt;
 import chess.ChessGame;
 import java.util.ArrayList;
@@ -14,6 +15,9 @@ import java.util.List;
 
 public class MySqlDataAccess implements DataAccess {
 
+    // games are stored in their compact encoded form; rows written before that still read back
+    private static final Gson GSON = ChessGameAdapter.gson();
+
     public void createTables() throws DataAccessException {
         String createUsersTable = """
                 CREATE TABLE IF NOT EXISTS users (
@@ -128,8 +132,7 @@ public class MySqlDataAccess implements DataAccess {
         if (game == null || game.game() == null || game.gameName() == null) {
             throw new DataAccessException("game data cannot be null");
         }
-        Gson gson = new Gson();
-        String gameJson = gson.toJson(game.game());
+        String gameJson = GSON.toJson(game.game());
         String sql = "INSERT INTO games (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
         try (var conn = DatabaseManager.getConnection()) {
             try (var preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -171,8 +174,7 @@ public class MySqlDataAccess implements DataAccess {
                         String gameName = rs.getString("gameName");
                         String gameJson = rs.getString("game");
 
-                        Gson gson = new Gson();
-                        ChessGame chessGame = gson.fromJson(gameJson, ChessGame.class);
+                        ChessGame chessGame = GSON.fromJson(gameJson, ChessGame.class);
 
                         return new GameData(dbGameID, whiteUsername, blackUsername, gameName, chessGame);
                     } else {
@@ -193,14 +195,13 @@ public class MySqlDataAccess implements DataAccess {
         try (var conn = DatabaseManager.getConnection();
             var preparedStatement = conn.prepareStatement(sql);
             var rs = preparedStatement.executeQuery()) {
-            Gson gson = new Gson();
             while (rs.next()) {
                 int gameID = rs.getInt("gameID");
                 String whiteUsername = rs.getString("whiteUsername");
                 String blackUsername = rs.getString("blackUsername");
                 String gameName = rs.getString("gameName");
                 String gameJson = rs.getString("game");
-                ChessGame chessGame = gson.fromJson(gameJson, ChessGame.class);
+                ChessGame chessGame = GSON.fromJson(gameJson, ChessGame.class);
                 games.add(new GameData(gameID, whiteUsername, blackUsername, gameName, chessGame));
             }
         } catch (SQLException ex) {
@@ -215,8 +216,7 @@ public class MySqlDataAccess implements DataAccess {
             throw new DataAccessException("game data cannot be null");
         }
         String sql = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
-        Gson gson = new Gson();
-        String gameJson = gson.toJson(game.game());
+        String gameJson = GSON.toJson(game.game());
         try (var conn = DatabaseManager.getConnection();
             var preparedStatement = conn.prepareStatement(sql)) {
             preparedStatement.setString(1, game.whiteUsername());
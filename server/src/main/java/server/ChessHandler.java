@@ -5,6 +5,7 @@ import service.GameService;
 import service.ServiceException;
 import service.UserService;
 import com.google.gson.JsonObject;
+import model.ChessGameAdapter;
 import model.GameData;
 
 public class ChessHandler {
@@ -15,7 +16,7 @@ public class ChessHandler {
     public ChessHandler(UserService userService, GameService gameService) {
         this.gameService = gameService;
         this.userService = userService;
-        this.gson = new Gson();
+        this.gson = ChessGameAdapter.gson();
     }
 
     public void clear(io.javalin.http.Context context) {
@@ -0,0 +1,242 @@
+package chess;
+
+/**
+ * Precomputed attack tables
+ * <p>
+ * Knights, kings and pawns get a plain per-square mask. Rook and bishop attacks
+ * use magic bitboards: the blockers on a square's relevant rays are multiplied
+ * by a per-square magic number and the top bits of the product index a table
+ * holding the attack set for that blocker pattern, so a lookup costs one
+ * multiply and one array read no matter how open the board is. The magics are
+ * found once when the class loads with a fixed seed, so every run builds
+ * identical tables.
+ * <p>
+ * For legal move generation there are also between and line masks for every
+ * pair of squares that share a rank, file or diagonal.
+ */
+public final class Attacks {
+
+    private static final int[][] KNIGHT_OFFSETS = {
+            {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}
+    };
+    private static final int[][] KING_OFFSETS = {{1, -1}, {1, 0}, {1, 1}, {0, -1}, {0, 1}, {-1, -1}, {-1, 0}, {-1, 1}};
+    private static final int[][] WHITE_PAWN_OFFSETS = {{1, -1}, {1, 1}};
+    private static final int[][] BLACK_PAWN_OFFSETS = {{-1, -1}, {-1, 1}};
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = leaperAttacks(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = leaperAttacks(square, KING_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = leaperAttacks(square, WHITE_PAWN_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = leaperAttacks(square, BLACK_PAWN_OFFSETS);
+            initMagic(square, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_TABLE);
+            initMagic(square, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_TABLE);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bitA = 1L << a;
+                long bitB = 1L << b;
+                if (a == b) {
+                    continue;
+                }
+                if ((rookAttacks(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, bitB) & rookAttacks(b, bitA);
+                    LINE[a][b] = (rookAttacks(a, 0) & rookAttacks(b, 0)) | bitA | bitB;
+                } else if ((bishopAttacks(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, bitB) & bishopAttacks(b, bitA);
+                    LINE[a][b] = (bishopAttacks(a, 0) & bishopAttacks(b, 0)) | bitA | bitB;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * @return the squares a knight on the square attacks
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a king on the square attacks
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on the square attacks diagonally
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @param square   square index of the rook
+     * @param occupied every occupied square on the board
+     * @return the squares a rook on the square attacks, including the first blocker on each ray
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[square][index];
+    }
+
+    /**
+     * @param square   square index of the bishop
+     * @param occupied every occupied square on the board
+     * @return the squares a bishop on the square attacks, including the first blocker on each ray
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[square][index];
+    }
+
+    /**
+     * @return the squares a queen on the square attacks
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared rank, file or
+     * diagonal, or 0 if they are not aligned
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal through both squares, edge to edge,
+     * or 0 if they are not aligned
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    private static long leaperAttacks(int square, int[][] offsets) {
+        long attacks = 0;
+        for (int[] offset : offsets) {
+            int row = Bitboards.row(square) + offset[0];
+            int col = Bitboards.column(square) + offset[1];
+            if (Bitboards.onBoard(row, col)) {
+                attacks |= 1L << Bitboards.square(row, col);
+            }
+        }
+        return attacks;
+    }
+
+    // finds a collision-free magic for one square and fills its attack table
+    private static void initMagic(int square, int[][] directions, long[] masks, long[] magics, int[] shifts,
+                                  long[][] tables) {
+        long mask = relevantMask(square, directions);
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+
+        // enumerate every blocker subset of the mask (carry-rippler) with its attack set
+        long[] blockers = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            blockers[i] = subset;
+            attacks[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        int[] epoch = new int[size];
+        for (int attempt = 1; ; attempt++) {
+            long magic = nextRandom() & nextRandom() & nextRandom();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean failed = false;
+            for (int i = 0; i < size && !failed; i++) {
+                int index = (int) ((blockers[i] * magic) >>> (64 - bits));
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    failed = true;
+                }
+            }
+            if (!failed) {
+                masks[square] = mask;
+                magics[square] = magic;
+                shifts[square] = 64 - bits;
+                tables[square] = table;
+                return;
+            }
+        }
+    }
+
+    // the squares whose occupancy can change the attack set; board edges never block anything further
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0;
+        int row = Bitboards.row(square);
+        int col = Bitboards.column(square);
+        for (int[] direction : directions) {
+            int r = row + direction[0];
+            int c = col + direction[1];
+            while (Bitboards.onBoard(r + direction[0], c + direction[1])) {
+                mask |= 1L << Bitboards.square(r, c);
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    // reference ray walk used to build the tables
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        int row = Bitboards.row(square);
+        int col = Bitboards.column(square);
+        for (int[] direction : directions) {
+            int r = row + direction[0];
+            int c = col + direction[1];
+            while (Bitboards.onBoard(r, c)) {
+                long bit = 1L << Bitboards.square(r, c);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    // xorshift64*, only used while searching for magics
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+}
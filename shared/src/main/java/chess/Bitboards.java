@@ -0,0 +1,60 @@
+package chess;
+
+/**
+ * Helpers for working with 64-bit square sets
+ * <p>
+ * Squares are numbered 0-63 with a1 = 0, h1 = 7 and h8 = 63, so bit
+ * (row - 1) * 8 + (column - 1) of a bitboard stands for that ChessPosition.
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private Bitboards() {
+    }
+
+    /**
+     * @return the square index for a 1-based row and column
+     */
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * @return the square index of a position on the board
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 1-based row of a square index
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-based column of a square index
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @return true if the 1-based row and column are on the board
+     */
+    public static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    /**
+     * @return the shared ChessPosition for a square index
+     */
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(square);
+    }
+}
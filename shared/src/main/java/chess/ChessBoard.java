@@ -1,19 +1,96 @@
 package chess;
 
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are kept in twelve bitboards (one per color and type, see
+ * {@link ChessPiece#index()}) plus an occupancy mask per color, with a
+ * 64-byte array of piece codes (see {@link ChessPiece#code()}) alongside so
+ * getPiece stays a single lookup into the shared pieces. A Zobrist
+ * key of the piece placement (see {@link Zobrist}) and the running evaluation
+ * sums (see {@link Evaluation}) are updated with every piece added or removed.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
 
-    private ChessPiece[][] board;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    /**
+     * How many moves can be made with makeMove before they have to be unmade
+     */
+    public static final int MAX_PLY = 256;
+
+    // castling rights that survive a move touching each square; and-ing in the
+    // masks of both ends of every move clears a right once its king or rook moves or is taken
+    private static final int[] CASTLING_MASKS = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASKS, ALL_CASTLING);
+        CASTLING_MASKS[Bitboards.square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASKS[Bitboards.square(1, 5)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASKS[Bitboards.square(1, 8)] &= ~WHITE_KINGSIDE;
+        CASTLING_MASKS[Bitboards.square(8, 1)] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASKS[Bitboards.square(8, 5)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[Bitboards.square(8, 8)] &= ~BLACK_KINGSIDE;
+    }
+
+    // the king and rook each right needs on their home squares, indexed by the right's bit
+    private static final int[] CASTLING_KINGS = {
+            Bitboards.square(1, 5), Bitboards.square(1, 5), Bitboards.square(8, 5), Bitboards.square(8, 5)
+    };
+    private static final int[] CASTLING_ROOKS = {
+            Bitboards.square(1, 8), Bitboards.square(1, 1), Bitboards.square(8, 8), Bitboards.square(8, 1)
+    };
+
+    private final long[] pieceBitboards = new long[12];
+    private final long[] colorOccupancy = new long[2];
+    private final byte[] squares = new byte[64];
+    private final int[] kingSquares = {-1, -1};
+    private long pieceKey;
+    private long pawnKey;
+    private int midgameScore;
+    private int endgameScore;
+    private int phase;
+    private int castlingRights = ALL_CASTLING;
+    private int enPassantSquare = -1;
+
+    // undo stack for makeMove/unmakeMove, allocated on first use
+    private transient int ply;
+    private transient int[] undoMoves;
+    private transient byte[] undoMoved;
+    private transient byte[] undoCaptured;
+    private transient int[] undoCastling;
+    private transient int[] undoEnPassant;
+
     public ChessBoard() {
-        board = new ChessPiece[8][8];
+    }
+
+    /**
+     * Copies another board's pieces, castling rights and en passant square. The copy
+     * starts with an empty undo stack, so it can be searched independently.
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(other.colorOccupancy, 0, colorOccupancy, 0, colorOccupancy.length);
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        System.arraycopy(other.kingSquares, 0, kingSquares, 0, kingSquares.length);
+        pieceKey = other.pieceKey;
+        pawnKey = other.pawnKey;
+        midgameScore = other.midgameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
     }
 
     @Override
@@ -22,12 +99,12 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return pieceKey == that.pieceKey && Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(pieceKey);
     }
 
     /**
@@ -37,7 +114,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = Bitboards.square(position);
+        removePiece(square);
+        if (piece != null) {
+            putPiece(square, piece.code());
+        }
     }
 
     /**
@@ -48,16 +129,286 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow() - 1][position.getColumn() - 1];
+        return ChessPiece.fromCode(squares[Bitboards.square(position)]);
+    }
+
+    /**
+     * @param square square index, see {@link Bitboards}
+     * @return the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return ChessPiece.fromCode(squares[square]);
+    }
+
+    /**
+     * @param square square index, see {@link Bitboards}
+     * @return the code of the piece on the square (see {@link ChessPiece#code()}), or
+     * {@link ChessPiece#NONE} if it is empty
+     */
+    public byte getPieceCode(int square) {
+        return squares[square];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color and type
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[ChessPiece.index(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        return colorOccupancy[0] | colorOccupancy[1];
+    }
+
+    /**
+     * @return the square of the given team's king, or -1 if it has none on the board
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * Looks outward from a square for anything of the given color attacking it,
+     * using the attack tables rather than generating the attackers' moves
+     *
+     * @param square  square index to test
+     * @param byColor color of the attacking side
+     * @return true if a piece of that color attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        // cheap leaper masks first, then the slider lookups
+        if ((Attacks.pawnAttacks(byColor.opponent(), square) & getPieces(byColor, ChessPiece.PieceType.PAWN)) != 0
+                || (Attacks.knightAttacks(square) & getPieces(byColor, ChessPiece.PieceType.KNIGHT)) != 0
+                || (Attacks.kingAttacks(square) & getPieces(byColor, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+        long occupied = getOccupancy();
+        long queens = getPieces(byColor, ChessPiece.PieceType.QUEEN);
+        long diagonal = getPieces(byColor, ChessPiece.PieceType.BISHOP) | queens;
+        long straight = getPieces(byColor, ChessPiece.PieceType.ROOK) | queens;
+        return (Attacks.bishopAttacks(square, occupied) & diagonal) != 0
+                || (Attacks.rookAttacks(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * Finds every piece of a color attacking a square, as if only the given squares
+     * were occupied. Passing a custom occupancy lets callers see through a piece
+     * that is about to move, such as a king stepping along a slider's ray.
+     *
+     * @param square   square index to test
+     * @param byColor  color of the attacking side
+     * @param occupied occupancy that blocks sliding attacks
+     * @return bitboard of the attacking pieces
+     */
+    public long getAttackers(int square, ChessGame.TeamColor byColor, long occupied) {
+        long queens = getPieces(byColor, ChessPiece.PieceType.QUEEN);
+        long diagonal = getPieces(byColor, ChessPiece.PieceType.BISHOP) | queens;
+        long straight = getPieces(byColor, ChessPiece.PieceType.ROOK) | queens;
+        // a pawn attacks the square exactly when a pawn of the other color on the square would attack it
+        return (Attacks.pawnAttacks(byColor.opponent(), square) & getPieces(byColor, ChessPiece.PieceType.PAWN))
+                | (Attacks.knightAttacks(square) & getPieces(byColor, ChessPiece.PieceType.KNIGHT))
+                | (Attacks.kingAttacks(square) & getPieces(byColor, ChessPiece.PieceType.KING))
+                | (Attacks.bishopAttacks(square, occupied) & diagonal)
+                | (Attacks.rookAttacks(square, occupied) & straight);
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement alone, which is what equals compares
+     */
+    public long getPieceKey() {
+        return pieceKey;
+    }
+
+    /**
+     * @return the Zobrist key of the pawns alone, which pawn structure results are cached by
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * @return the sum of every piece's middlegame material and square value, white minus black
+     */
+    public int getMidgameScore() {
+        return midgameScore;
+    }
+
+    /**
+     * @return the sum of every piece's endgame material and square value, white minus black
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return the game phase from the pieces on the board, {@link Evaluation#MAX_PHASE} at the start
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Gets the Zobrist key of the position on the board: the piece placement, the usable
+     * castling rights, and the en passant file when a pawn is actually able to capture there.
+     * The side to move is not part of the board, see {@link ChessGame#positionKey()}.
+     *
+     * @return the 64-bit key
+     */
+    public long getKey() {
+        long key = pieceKey ^ Zobrist.castling(getUsableCastlingRights());
+        if (enPassantSquare >= 0) {
+            // the square behind a white double move is on row 3, and black captures onto it
+            ChessGame.TeamColor capturer = Bitboards.row(enPassantSquare) == 3
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            long capturers = getPieces(capturer, ChessPiece.PieceType.PAWN);
+            if ((Attacks.pawnAttacks(capturer.opponent(), enPassantSquare) & capturers) != 0) {
+                key ^= Zobrist.enPassant(Bitboards.column(enPassantSquare));
+            }
+        }
+        return key;
+    }
+
+    /**
+     * @return the castling rights still available, as the or of the *_KINGSIDE/*_QUEENSIDE flags
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Gets the castling rights whose king and rook are still on their home squares. A board
+     * starts with every right and set-up pieces keep them, so a right without its pieces
+     * can never be used and isn't part of the position.
+     *
+     * @return the usable rights, as the or of the *_KINGSIDE/*_QUEENSIDE flags
+     */
+    public int getUsableCastlingRights() {
+        int rights = castlingRights;
+        for (int bit = 0; bit < 4; bit++) {
+            if ((rights & (1 << bit)) != 0) {
+                ChessGame.TeamColor color = bit < 2 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                if (squares[CASTLING_KINGS[bit]] != ChessPiece.code(color, ChessPiece.PieceType.KING)
+                        || squares[CASTLING_ROOKS[bit]] != ChessPiece.code(color, ChessPiece.PieceType.ROOK)) {
+                    rights &= ~(1 << bit);
+                }
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * Sets which castling rights remain, for setting up a position
+     *
+     * @param castlingRights the or of the *_KINGSIDE/*_QUEENSIDE flags
+     */
+    public void setCastlingRights(int castlingRights) {
+        if ((castlingRights & ~ALL_CASTLING) != 0) {
+            throw new IllegalArgumentException("Unknown castling rights: " + castlingRights);
+        }
+        this.castlingRights = castlingRights;
+    }
+
+    /**
+     * @return the square a pawn skipped over with a double move on the last move, or -1
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Sets the square a pawn has just skipped over, for setting up a position
+     *
+     * @param enPassantSquare a square on row 3 or 6, or -1 for none
+     */
+    public void setEnPassantSquare(int enPassantSquare) {
+        if (enPassantSquare != -1 && (enPassantSquare < 0 || enPassantSquare > 63
+                || (Bitboards.row(enPassantSquare) != 3 && Bitboards.row(enPassantSquare) != 6))) {
+            throw new IllegalArgumentException("Not an en passant square: " + enPassantSquare);
+        }
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    /**
+     * Plays a packed move (see {@link Move}) and records what is needed to take it back
+     * with {@link #unmakeMove()}. The move is not checked for legality. Castling moves the
+     * rook as well as the king, and an en passant capture takes the pawn beside the mover.
+     * The castling rights and en passant square are updated from the move alone.
+     *
+     * @param move the move to play, as produced by {@link MoveGenerator}
+     */
+    public void makeMove(int move) {
+        if (undoMoves == null) {
+            undoMoves = new int[MAX_PLY];
+            undoMoved = new byte[MAX_PLY];
+            undoCaptured = new byte[MAX_PLY];
+            undoCastling = new int[MAX_PLY];
+            undoEnPassant = new int[MAX_PLY];
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        byte piece = removePiece(from);
+        undoMoves[ply] = move;
+        undoMoved[ply] = piece;
+        undoCaptured[ply] = removePiece(Move.captureSquare(move));
+        undoCastling[ply] = castlingRights;
+        undoEnPassant[ply] = enPassantSquare;
+        ply++;
+
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            piece = ChessPiece.code(ChessPiece.fromCode(piece).getTeamColor(), promotion);
+        }
+        putPiece(to, piece);
+        if (Move.isCastle(move)) {
+            putPiece(castlingRookTo(from, to), removePiece(castlingRookFrom(from, to)));
+        }
+        castlingRights &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+        enPassantSquare = (move & Move.DOUBLE_PUSH) != 0 ? (from + to) >>> 1 : -1;
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        ply--;
+        int move = undoMoves[ply];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (Move.isCastle(move)) {
+            putPiece(castlingRookFrom(from, to), removePiece(castlingRookTo(from, to)));
+        }
+        removePiece(to);
+        putPiece(from, undoMoved[ply]);
+        if (undoCaptured[ply] != ChessPiece.NONE) {
+            putPiece(Move.captureSquare(move), undoCaptured[ply]);
+        }
+        castlingRights = undoCastling[ply];
+        enPassantSquare = undoEnPassant[ply];
+    }
+
+    /**
+     * Forgets every recorded move so the current position becomes the base of the
+     * undo stack. Used once a move is played for real in a game.
+     */
+    public void clearUndo() {
+        ply = 0;
     }
 
     // this didn't actually worked how I wanted it too, but keeping it just in case;
     public ChessPosition getPosition(ChessPiece piece) {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (board[i][j] == piece) {
-                    return new ChessPosition(i + 1, j + 1);
-                }
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] == piece.code()) {
+                return Bitboards.position(square);
             }
         }
         return null;
@@ -68,32 +419,79 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        this.board = new ChessPiece[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                board[i][j] = null;
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorOccupancy, 0L);
+        Arrays.fill(squares, ChessPiece.NONE);
+        Arrays.fill(kingSquares, -1);
+        pieceKey = 0;
+        pawnKey = 0;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
+        clearUndo();
+        ChessPiece.PieceType[] backRow = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+        for (int col = 1; col <= 8; col++) {
+            putPiece(Bitboards.square(2, col), ChessPiece.code(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            putPiece(Bitboards.square(7, col), ChessPiece.code(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            putPiece(Bitboards.square(1, col), ChessPiece.code(ChessGame.TeamColor.WHITE, backRow[col - 1]));
+            putPiece(Bitboards.square(8, col), ChessPiece.code(ChessGame.TeamColor.BLACK, backRow[col - 1]));
+        }
+    }
+
+    // places a piece, given by its code, on an empty square
+    private void putPiece(int square, byte code) {
+        ChessPiece piece = ChessPiece.fromCode(code);
+        long bit = 1L << square;
+        squares[square] = code;
+        pieceBitboards[piece.index()] |= bit;
+        colorOccupancy[piece.getTeamColor().ordinal()] |= bit;
+        pieceKey ^= Zobrist.piece(piece.index(), square);
+        midgameScore += Evaluation.midgame(piece.index(), square);
+        endgameScore += Evaluation.endgame(piece.index(), square);
+        phase += Evaluation.phase(piece.index());
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            kingSquares[piece.getTeamColor().ordinal()] = square;
+        } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(piece.index(), square);
+        }
+    }
+
+    // clears a square, returning the code of whatever was on it
+    private byte removePiece(int square) {
+        byte code = squares[square];
+        if (code != ChessPiece.NONE) {
+            ChessPiece piece = ChessPiece.fromCode(code);
+            long bit = 1L << square;
+            squares[square] = ChessPiece.NONE;
+            pieceBitboards[piece.index()] &= ~bit;
+            colorOccupancy[piece.getTeamColor().ordinal()] &= ~bit;
+            pieceKey ^= Zobrist.piece(piece.index(), square);
+            midgameScore -= Evaluation.midgame(piece.index(), square);
+            endgameScore -= Evaluation.endgame(piece.index(), square);
+            phase -= Evaluation.phase(piece.index());
+            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+                // fall back to any other king of that color, as can happen on hand-built boards
+                long kings = pieceBitboards[piece.index()];
+                kingSquares[piece.getTeamColor().ordinal()] = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+            } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                pawnKey ^= Zobrist.piece(piece.index(), square);
             }
         }
-        for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
-        }
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        return code;
+    }
+
+    // the king goes two squares towards the rook, which jumps from its corner to the square the king crossed
+    private static int castlingRookFrom(int kingFrom, int kingTo) {
+        return kingTo > kingFrom ? kingTo + 1 : kingTo - 2;
+    }
+
+    private static int castlingRookTo(int kingFrom, int kingTo) {
+        return (kingFrom + kingTo) >>> 1;
     }
 }
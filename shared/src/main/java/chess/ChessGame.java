@@ -1,9 +1,10 @@
 package chess;
 
+import chess.endgame.EndgameResult;
+import chess.endgame.EndgameTables;
+
 import java.util.Collection;
 import java.util.Objects;
-import java.util.List;
-import java.util.ArrayList;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -13,14 +14,39 @@ import java.util.ArrayList;
  */
 public class ChessGame {
 
+    /**
+     * Version byte at the start of every {@link #encode()}d game
+     */
+    public static final byte ENCODING_VERSION = 1;
+    /**
+     * Length of an {@link #encode()}d game in bytes
+     */
+    public static final int ENCODED_SIZE = 39;
+
     private ChessBoard board;
     private TeamColor teamTurn;
+    // plies since the last capture or pawn move, and the move number, which goes up after black moves
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
         teamTurn = TeamColor.WHITE;
     }
 
+    /**
+     * Copies another game, board included, so the copy can be played or searched
+     * without touching the original
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        teamTurn = other.teamTurn;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -32,7 +58,30 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, teamTurn);
+        // the board's hash is its Zobrist piece key, so this costs nothing to compute
+        return 31 * Objects.hashCode(board) + (teamTurn == null ? 0 : teamTurn.ordinal());
+    }
+
+    /**
+     * Gets a 64-bit Zobrist key for the current position: the pieces, the side to move,
+     * castling rights and en passant. The key is kept up to date as moves are made, so
+     * this is cheap enough to use for cache keys and spotting repeated positions.
+     *
+     * @return the position key
+     */
+    public long positionKey() {
+        return board.getKey() ^ (teamTurn == TeamColor.BLACK ? Zobrist.blackToMove() : 0);
+    }
+
+    /**
+     * Scores the current position by material and piece placement, blending middlegame
+     * and endgame values by how many pieces are left. The board keeps the sums up to
+     * date as moves are made, so this is cheap enough to call after every move.
+     *
+     * @return the score in centipawns, positive when white is better
+     */
+    public int evaluate() {
+        return Evaluation.evaluate(board);
     }
 
     /**
@@ -51,12 +100,123 @@ public class ChessGame {
         this.teamTurn = team;
     }
 
+    /**
+     * @return plies played since the last capture or pawn move, for the fifty-move rule
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        if (halfmoveClock < 0) {
+            throw new IllegalArgumentException("Negative halfmove clock: " + halfmoveClock);
+        }
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * @return the number of the move being played, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        if (fullmoveNumber < 1) {
+            throw new IllegalArgumentException("Move numbers start at 1: " + fullmoveNumber);
+        }
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Sets up a game from a position in Forsyth-Edwards Notation, see {@link Fen}
+     *
+     * @param fen the position, e.g. {@link Fen#START}
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation, all six fields
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Packs the game into {@link #ENCODED_SIZE} bytes, for storing or sending it. The
+     * layout is a version byte ({@link #ENCODING_VERSION}); 32 bytes of piece codes (see
+     * {@link ChessPiece#code()}), two squares to a byte, the lower numbered square (see
+     * {@link Bitboards}) in the low four bits; a byte holding the side to move in bit 0
+     * (set for black) and the castling rights in bits 1-4; the en passant square or -1;
+     * then the halfmove clock and the move number as unsigned big-endian shorts.
+     *
+     * @return the encoded game
+     */
+    public byte[] encode() {
+        byte[] bytes = new byte[ENCODED_SIZE];
+        bytes[0] = ENCODING_VERSION;
+        for (int square = 0; square < 64; square++) {
+            bytes[1 + square / 2] |= (byte) (board.getPieceCode(square) << (square % 2 * 4));
+        }
+        bytes[33] = (byte) ((teamTurn == TeamColor.BLACK ? 1 : 0) | (board.getCastlingRights() << 1));
+        bytes[34] = (byte) board.getEnPassantSquare();
+        int halfmoves = Math.min(halfmoveClock, 0xFFFF);
+        int moves = Math.min(fullmoveNumber, 0xFFFF);
+        bytes[35] = (byte) (halfmoves >>> 8);
+        bytes[36] = (byte) halfmoves;
+        bytes[37] = (byte) (moves >>> 8);
+        bytes[38] = (byte) moves;
+        return bytes;
+    }
+
+    /**
+     * Rebuilds a game from the bytes made by {@link #encode()}
+     *
+     * @param bytes an encoded game
+     * @return the game
+     * @throws IllegalArgumentException if the bytes are not an encoded game
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes.length != ENCODED_SIZE || bytes[0] != ENCODING_VERSION) {
+            throw new IllegalArgumentException("Not an encoded game");
+        }
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int code = (bytes[1 + square / 2] >>> (square % 2 * 4)) & 0xF;
+            if (code > 12) {
+                throw new IllegalArgumentException("Bad piece code " + code + " on square " + square);
+            }
+            if (code != ChessPiece.NONE) {
+                board.addPiece(Bitboards.position(square), ChessPiece.fromCode(code));
+            }
+        }
+        board.setCastlingRights((bytes[33] >>> 1) & 0x7F);
+        board.setEnPassantSquare(bytes[34]);
+        ChessGame game = new ChessGame();
+        game.board = board;
+        game.teamTurn = (bytes[33] & 1) == 0 ? TeamColor.WHITE : TeamColor.BLACK;
+        game.setHalfmoveClock(((bytes[35] & 0xFF) << 8) | (bytes[36] & 0xFF));
+        game.setFullmoveNumber(((bytes[37] & 0xFF) << 8) | (bytes[38] & 0xFF));
+        return game;
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the other team
+         */
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
     }
 
     /**
@@ -66,8 +226,9 @@ public class ChessGame {
      * @return Set of valid moves for requested piece, or null if no piece at
      * startPosition
      *
-     * call ChessPiece.pieceMoves method. That returns a list of all the possible moves
-     * go through a for loop of all those moves and if isInCheck returns true remove it from the list
+     * let the legal move generator work out checks and pins once for the position
+     * and hand back only the moves that keep the king safe, captures ordered by
+     * how much material they win
      *
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
@@ -75,27 +236,45 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-        // check each move to see if it follows rules of chess
-        for (ChessMove move : possibleMoves) {
-            // make a temporary move to see if king is in check afterwards
-            ChessPiece originalPiece = board.getPiece(move.getEndPosition());
-            board.addPiece(move.getStartPosition(), null);
-            if (move.getPromotionPiece() != null) {
-                ChessPiece promotedPiece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
-                board.addPiece(move.getEndPosition(), promotedPiece);
-            } else {
-                board.addPiece(move.getEndPosition(), piece);
-            }
-            if (!isInCheck(piece.getTeamColor())) {
-                validMoves.add(move);
-            }
-            // undo temp move
-            board.addPiece(move.getStartPosition(), piece);
-            board.addPiece(move.getEndPosition(), originalPiece);
+        MoveList validMoves = new MoveList(32);
+        MoveGenerator.generateLegal(board, Bitboards.square(startPosition), validMoves);
+        // captures first, the ones that win the most material at the front
+        StaticExchange.orderCaptures(board, validMoves, 0);
+        return validMoves.toChessMoves();
+    }
+
+    /**
+     * Works out what a move wins or loses in material once every recapture on its
+     * end square has been played out, assuming both sides recapture with their least
+     * valuable piece and stop when carrying on would lose. Nothing is played on the board.
+     *
+     * @param move the move to look at, which must start on a square holding a piece
+     * @return centipawns the mover comes out ahead, negative if the move gives material away
+     */
+    public int staticExchange(ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        if (piece == null) {
+            throw new IllegalArgumentException("No piece at start position");
+        }
+        int packed = Move.of(move);
+        // a pawn going sideways onto the en passant square takes the pawn beside it
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN
+                && Move.to(packed) == board.getEnPassantSquare()
+                && move.getStartPosition().getColumn() != move.getEndPosition().getColumn()) {
+            packed |= Move.CAPTURE | Move.EN_PASSANT;
         }
-        return validMoves;
+        return StaticExchange.evaluate(board, packed);
+    }
+
+    /**
+     * Looks the current position up in endgame tables
+     *
+     * @param tables the tables to probe
+     * @return the exact result for the team whose turn it is, or null if the position
+     * isn't covered by the tables
+     */
+    public EndgameResult probeEndgameTables(EndgameTables tables) {
+        return tables.probe(board, teamTurn);
     }
 
     /**
@@ -107,9 +286,8 @@ public class ChessGame {
      * Gameplan:
      *
      * get the piece and see if its the correct team turn
-     * check if the move given is valid by calling the validMoves method
-     * actually move the piece
-     * if it's a pawn deal with the potential promotion piece
+     * find the move among the piece's legal moves, reject it if it isn't there
+     * actually move the piece with board.makeMove (which handles promotion, castling and en passant)
      * switch turns
      *
      */
@@ -122,21 +300,25 @@ public class ChessGame {
         if (piece.getTeamColor() != teamTurn) {
             throw new InvalidMoveException("Not your turn");
         }
-        // check if the move is in the list of valid moves
-        Collection<ChessMove> validMoves = validMoves(move.getStartPosition());
-        if (!validMoves.contains(move)) {
+        // find the move among the piece's legal moves, so it carries the generator's flags
+        MoveList validMoves = new MoveList(32);
+        MoveGenerator.generateLegal(board, Bitboards.square(move.getStartPosition()), validMoves);
+        int requested = Move.key(Move.of(move));
+        int found = -1;
+        for (int i = 0; i < validMoves.size() && found == -1; i++) {
+            if (Move.key(validMoves.get(i)) == requested) {
+                found = validMoves.get(i);
+            }
+        }
+        if (found == -1) {
             throw new InvalidMoveException("Invalid move");
         }
-        // move piece from start position to end position
-        board.addPiece(move.getStartPosition(), null);
-
-        // if it's a pawn deal with the promotion piece
-        if (move.getPromotionPiece() != null) {
-            // Create the promoted piece
-            ChessPiece promotedPiece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
-            board.addPiece(move.getEndPosition(), promotedPiece);
-        } else {
-            board.addPiece(move.getEndPosition(), piece);
+        boolean resetsClock = Move.isCapture(found) || piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        board.makeMove(found);
+        board.clearUndo();
+        halfmoveClock = resetsClock ? 0 : halfmoveClock + 1;
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
         // change turns
         if (teamTurn == TeamColor.WHITE) {
@@ -153,63 +335,18 @@ public class ChessGame {
      * @return True if the specified team is in check
      *
      *
-     * Gameplan in pseudocode:
+     * Gameplan:
      *
-     * row = King.teamColor.getRow()
-     * col = King.teamColor.getColumn()
-     * kingSpot = new ChessPosition(row, col)
-     *          **create new method getPosition() with parameter piece that loops through the board array and returns
-     *          the position the piece is found.
-     * list opposingPositions[]
-     * for x,y in this.board {
-     *     if getpiece != null && getPiece == opposing color {
-     *         add x,y to opposingPositions
-     *     }
-     * }
-     * for (piece : opposingPositions) {
-     *     places = (ChessPosition.pieceMoves(type)
-     *     for (option : places) {
-     *         if position == kingSpot {
-     *             return true
-     *         }
-     *     }
-     * }
-     * return false
+     * kingSpot = board.getKingSquare(teamColor)  (the board keeps this up to date as pieces move)
+     * return board.isSquareAttacked(kingSpot, other team)
+     *          **isSquareAttacked looks outward from the king with the knight/king/pawn masks
+     *          and the slider attack tables instead of generating every enemy move
      *
      */
     public boolean isInCheck(TeamColor teamColor) {
-        // get teamColor King's position
-        ChessPosition kingSpot = null;
-        for (int row = 1; row <= 8 && kingSpot == null; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                    kingSpot = new ChessPosition(row, col);
-                    break;
-                }
-            }
-        }
-        // get all current opposing pieces
-        var opposingPieces = new ArrayList<ChessPosition>();
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                var piece = this.board.getPiece(new ChessPosition(i, j));
-                if (piece != null && piece.getTeamColor() != teamColor ) {
-                    opposingPieces.add(new ChessPosition(i, j));
-                }
-            }
-        }
-        // loop through possibleMoves of opposing pieces and see if any can capture the king
-        for (ChessPosition position : opposingPieces) {
-            ChessPiece piece = board.getPiece(position);
-            Collection<ChessMove> possibleMoves = piece.pieceMoves(board, position);
-            for (ChessMove move : possibleMoves) {
-                if (move.getEndPosition().equals(kingSpot)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        // the board tracks where the king is, so just look outward from it for attackers
+        int kingSquare = board.getKingSquare(teamColor);
+        return kingSquare >= 0 && board.isSquareAttacked(kingSquare, teamColor.opponent());
     }
 
     /**
@@ -233,22 +370,8 @@ public class ChessGame {
         if (!isInCheck(teamColor)) {
             return false; // can't be checkmate if not already in check
         }
-        // get all pieces of the team
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                // if the piece belongs to the team in check get it's valid moves
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> validMoves = validMoves(position);
-                    // if any piece has valid moves, it's not checkmate
-                    if (validMoves != null && !validMoves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        // if any piece of the team has valid moves, it's not checkmate
+        return !MoveGenerator.hasLegalMove(board, teamColor);
     }
 
     /**
@@ -273,19 +396,7 @@ public class ChessGame {
         if (isInCheck(teamColor)) {
             return false; // can't be stalemate if in check
         }
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> validMoves = validMoves(position);
-                    if (validMoves != null && !validMoves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return !MoveGenerator.hasLegalMove(board, teamColor);
     }
 
     /**
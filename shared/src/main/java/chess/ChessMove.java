@@ -10,19 +10,79 @@ import java.util.Objects;
  */
 public class ChessMove {
 
+    // indexed by Move.key; holds every move between two squares and every promotion a pawn can make
+    private static final ChessMove[] MOVES = new ChessMove[1 << 15];
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+    };
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                MOVES[Move.of(from, to)] = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), null);
+                int rowStep = Bitboards.row(to) - Bitboards.row(from);
+                boolean lastRow = (Bitboards.row(to) == 8 && rowStep == 1) || (Bitboards.row(to) == 1 && rowStep == -1);
+                if (lastRow && Math.abs(Bitboards.column(to) - Bitboards.column(from)) <= 1) {
+                    for (ChessPiece.PieceType type : PROMOTIONS) {
+                        MOVES[Move.of(from, to, type, 0)] =
+                                new ChessMove(ChessPosition.of(from), ChessPosition.of(to), type);
+                    }
+                }
+            }
+        }
+    }
+
     private final ChessPosition startPosition;
     public final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
+    // computed in the constructor; transient, so recomputed on first hashCode after Gson reads it back
+    private transient int hash;
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
         this.startPosition = startPosition;
         this.endPosition = endPosition;
         this.promotionPiece = promotionPiece;
+        hash = computeHash();
+    }
+
+    /**
+     * Returns a shared instance when one exists (any move between two squares on the
+     * board, and the promotions a pawn can make), so building moves allocates nothing.
+     *
+     * @return a move equal to {@code new ChessMove(startPosition, endPosition, promotionPiece)}
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (Bitboards.onBoard(startPosition.getRow(), startPosition.getColumn())
+                && Bitboards.onBoard(endPosition.getRow(), endPosition.getColumn())) {
+            ChessMove move = MOVES[Move.of(Bitboards.square(startPosition), Bitboards.square(endPosition),
+                    promotionPiece, 0)];
+            if (move != null) {
+                return move;
+            }
+        }
+        return new ChessMove(startPosition, endPosition, promotionPiece);
+    }
+
+    /**
+     * @return the shared instance for a packed move (see {@link Move}), ignoring its flags
+     */
+    static ChessMove of(int move) {
+        ChessMove shared = MOVES[Move.key(move)];
+        if (shared != null) {
+            return shared;
+        }
+        return new ChessMove(ChessPosition.of(Move.from(move)), ChessPosition.of(Move.to(move)),
+                Move.promotion(move));
     }
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -32,7 +92,19 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        int h = hash;
+        if (h == 0) {
+            h = computeHash();
+            hash = h;
+        }
+        return h;
+    }
+
+    // the same value as Objects.hash(startPosition, endPosition, promotionPiece), without the varargs array
+    private int computeHash() {
+        int h = 31 + Objects.hashCode(startPosition);
+        h = 31 * h + Objects.hashCode(endPosition);
+        return 31 * h + Objects.hashCode(promotionPiece);
     }
 
     /**
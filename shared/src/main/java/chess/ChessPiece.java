@@ -11,6 +11,22 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    /**
+     * The byte code of an empty square, see {@link #code()}
+     */
+    public static final byte NONE = 0;
+
+    // indexed by code; slot 0 stays null for an empty square
+    private static final ChessPiece[] PIECES = new ChessPiece[13];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[code(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final PieceType type;
     public final ChessGame.TeamColor pieceColor;
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
@@ -32,6 +48,24 @@ public class ChessPiece {
         return Objects.hash(type, pieceColor);
     }
 
+    /**
+     * There are only twelve different pieces, and pieces never change, so one shared
+     * instance of each is all a board needs
+     *
+     * @return the shared piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor color, PieceType type) {
+        return PIECES[code(color, type)];
+    }
+
+    /**
+     * @param code a piece's byte code, or {@link #NONE}
+     * @return the shared piece for the code, or null for {@link #NONE}
+     */
+    public static ChessPiece fromCode(int code) {
+        return PIECES[code];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -58,6 +92,36 @@ public class ChessPiece {
         return type;
     }
 
+    /**
+     * @return the slot this piece uses in a board's bitboard array, type ordinal
+     * for white pieces and type ordinal + 6 for black pieces
+     */
+    public int index() {
+        return index(pieceColor, type);
+    }
+
+    /**
+     * @return the bitboard slot used for pieces of the given color and type
+     */
+    public static int index(ChessGame.TeamColor color, PieceType type) {
+        return type.ordinal() + (color == ChessGame.TeamColor.WHITE ? 0 : 6);
+    }
+
+    /**
+     * @return a byte standing for this piece, one more than its {@link #index()}, so that
+     * 0 ({@link #NONE}) is free to mean an empty square
+     */
+    public byte code() {
+        return code(pieceColor, type);
+    }
+
+    /**
+     * @return the byte code of a piece of the given color and type
+     */
+    public static byte code(ChessGame.TeamColor color, PieceType type) {
+        return (byte) (index(color, type) + 1);
+    }
+
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -66,178 +130,9 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        var possibleMoves = new java.util.ArrayList<ChessMove>();
-        switch (board.getPiece(myPosition).getPieceType()) {
-            case PieceType.KING -> {
-                // king move logic
-                int[] rowMoves = {-1, -1, -1, 0, 0, 1, 1, 1};
-                int[] colMoves = {-1, 0, 1, -1, 1, -1, 0, 1};
-                for (int i = 0; i < 8; i++) {
-                    int newRow = myPosition.getRow() + rowMoves[i];
-                    int newCol = myPosition.getColumn() + colMoves[i];
-                    if (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
-                        var newPos = new ChessPosition(newRow, newCol);
-                        var targetPiece = board.getPiece(newPos);
-                        if (targetPiece == null || targetPiece.getTeamColor() != this.getTeamColor()) {
-                            possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                        }
-                    }
-                 }
-            }
-            case PieceType.QUEEN -> {
-                // queen move logic
-                int [] rowDirections = {-1, -1, -1, 0, 0, 1, 1, 1};
-                int [] colDirections = {-1, 0, 1, -1, 1, -1, 0, 1};
-                for (int d = 0; d < rowDirections.length; d++) {
-                    int r = rowDirections[d];
-                    int c = colDirections[d];
-                    int newRow = myPosition.getRow();
-                    int newCol = myPosition.getColumn();
-                    while (true) {
-                        newRow += r;
-                        newCol += c;
-                        if (newRow < 1 || newRow > 8 || newCol < 1 || newCol > 8) break;
-                        var newPos = new ChessPosition(newRow, newCol);
-                        var targetPiece = board.getPiece(newPos);
-                        if (targetPiece == null) {
-                            possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                        } else {
-                            if (targetPiece.getTeamColor() != this.getTeamColor()) {
-                                possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                            }
-                            break; // Stop if blocked
-                        }
-                    }
-                }
-            }
-            case PieceType.BISHOP -> {
-                // bishop move logic
-                int [] rowDirections = {-1, 1, -1, 1};
-                int [] colDirections = {-1, -1, 1, 1};
-                for (int d = 0; d < rowDirections.length; d++) {
-                    int r = rowDirections[d];
-                    int c = colDirections[d];
-                    int newRow = myPosition.getRow();
-                    int newCol = myPosition.getColumn();
-                    while (true) {
-                        newRow += r;
-                        newCol += c;
-                        if (newRow < 1 || newRow > 8 || newCol < 1 || newCol > 8) break;
-                        var newPos = new ChessPosition(newRow, newCol);
-                        var targetPiece = board.getPiece(newPos);
-                        if (targetPiece == null) {
-                            possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                        } else {
-                            if (targetPiece.getTeamColor() != this.getTeamColor()) {
-                                possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                            }
-                            break; // Stop if blocked
-                        }
-                    }
-                }
-            }
-            case PieceType.KNIGHT -> {
-                // knight move logic
-                int[] rowMoves = {1, 2, 2, 1, -1, -2, -2, -1};
-                int[] colMoves = {2, 1, -1, -2, -2, -1, 1, 2};
-                for (int i = 0; i < rowMoves.length; i++) {
-                    int newRow = myPosition.getRow() + rowMoves[i];
-                    int newCol = myPosition.getColumn() + colMoves[i];
-                    if (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
-                        var newPos = new ChessPosition(newRow, newCol);
-                        var targetPiece = board.getPiece(newPos);
-                        if (targetPiece == null || targetPiece.getTeamColor() != this.getTeamColor()) {
-                            possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                        }
-                    }
-                }
-            }
-            case PieceType.ROOK -> {
-                // rook move logic
-                int [] rowDirections = {-1, 0, 1, 0};
-                int [] colDirections = {0, 1, 0, -1};
-                for (int d = 0; d < rowDirections.length; d++) {
-                    int r = rowDirections[d];
-                    int c = colDirections[d];
-                    int newRow = myPosition.getRow();
-                    int newCol = myPosition.getColumn();
-                    while (true) {
-                        newRow += r;
-                        newCol += c;
-                        if (newRow < 1 || newRow > 8 || newCol < 1 || newCol > 8) break;
-                        var newPos = new ChessPosition(newRow, newCol);
-                        var targetPiece = board.getPiece(newPos);
-                        if (targetPiece == null) {
-                            possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                        } else {
-                            if (targetPiece.getTeamColor() != this.getTeamColor()) {
-                                possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                            }
-                            break; // Stop if blocked
-                        }
-                    }
-                }
-            }
-            case PieceType.PAWN -> {
-                // REFRACTERING PAWN LOGIC
-                PieceType[] promotionType = {PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT, PieceType.QUEEN};
-
-                int row = myPosition.getRow();
-                int col = myPosition.getColumn();
-                int direction;
-                int startRow;
-                int promotionRow;
-
-                if (this.getTeamColor() == ChessGame.TeamColor.BLACK) {
-                    direction = -1;
-                    startRow = 7;
-                    promotionRow = 2;
-                } else {
-                    direction = 1;
-                    startRow = 2;
-                    promotionRow = 7;
-                }
-                boolean canPromote = row == promotionRow;
-
-                // move forward
-                ChessPosition newPos = new ChessPosition(row + direction, col);
-                if (board.getPiece(newPos) == null) {
-                    if (canPromote) {
-                        for (PieceType type : promotionType) {
-                            possibleMoves.add(new ChessMove(myPosition, newPos, type));
-                        }
-                    } else {
-                        possibleMoves.add(new ChessMove(myPosition, newPos, null));
-                        if (startRow == row) {
-                            ChessPosition newPos1 = new ChessPosition(row + 2 * direction, col);
-                            if (board.getPiece(newPos1) == null) {
-                                possibleMoves.add(new ChessMove(myPosition, newPos1, null));
-                            }
-                        }
-                    }
-                }
-                // capture
-                int[] capturePiece = {-1, 1};
-                for (int captureDirection : capturePiece) {
-                    ChessPosition newPos2 = new ChessPosition(row + direction, col + captureDirection);
-                    if (newPos2.getRow() >= 1 && newPos2.getRow() <= 8 && newPos2.getColumn() >= 1 && newPos2.getColumn() <= 8) {
-                        ChessPiece target = board.getPiece(newPos2);
-                        if (target != null && target.getTeamColor() != this.getTeamColor()) {
-                            if (canPromote) {
-                                for (PieceType type : promotionType) {
-                                    possibleMoves.add(new ChessMove(myPosition, newPos2, type));
-                                }
-                            } else {
-                                possibleMoves.add(new ChessMove(myPosition, newPos2, null));
-                            }
-                        }
-                    }
-                }
-            }
-            default -> {
-                throw new RuntimeException("Unknown piece type");
-            }
-        }
-        return possibleMoves;
+        // thin adapter over the packed-int generator
+        MoveList moves = new MoveList(32);
+        MoveGenerator.generate(board, Bitboards.square(myPosition), pieceColor, type, moves);
+        return moves.toChessMoves();
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -10,6 +8,15 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    // indexed by square (see Bitboards)
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(Bitboards.row(square), Bitboards.column(square));
+        }
+    }
+
     private final int row;
     private final int col;
     public ChessPosition(int row, int col) {
@@ -17,8 +24,31 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Returns the shared instance for a square on the board, so looking positions up
+     * allocates nothing. Positions off the board get a new instance each time.
+     *
+     * @return a position equal to {@code new ChessPosition(row, col)}
+     */
+    public static ChessPosition of(int row, int col) {
+        if (!Bitboards.onBoard(row, col)) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[Bitboards.square(row, col)];
+    }
+
+    /**
+     * @return the shared instance for a square index (see {@link Bitboards})
+     */
+    static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -28,7 +58,8 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        // what Objects.hash(row, col) gives, without boxing
+        return 31 * (31 + row) + col;
     }
 
     /**
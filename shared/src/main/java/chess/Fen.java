@@ -0,0 +1,290 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the one-line text form of a position
+ * <p>
+ * A FEN string has six fields separated by spaces: the piece placement from row 8
+ * down to row 1, the side to move ({@code w} or {@code b}), the castling rights
+ * ({@code KQkq} or {@code -}), the en passant square or {@code -}, the halfmove
+ * clock and the move number. The two clocks may be left off when reading, as they
+ * often are in position collections, and default to 0 and 1.
+ */
+public final class Fen {
+
+    /**
+     * The starting position
+     */
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // FEN letters by piece code (see ChessPiece#code()); white's are upper case
+    private static final char[] LETTERS = {' ', 'K', 'Q', 'B', 'N', 'R', 'P', 'k', 'q', 'b', 'n', 'r', 'p'};
+    private static final char[] CASTLING_LETTERS = {'K', 'Q', 'k', 'q'};
+    private static final int[] CASTLING_FLAGS = {
+            ChessBoard.WHITE_KINGSIDE, ChessBoard.WHITE_QUEENSIDE, ChessBoard.BLACK_KINGSIDE, ChessBoard.BLACK_QUEENSIDE
+    };
+
+    private Fen() {
+    }
+
+    /**
+     * @param fen a position in FEN
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        ChessBoard board = new ChessBoard();
+        int end = readPlacement(fen, board);
+
+        int start = nextField(fen, end);
+        end = fieldEnd(fen, start);
+        ChessGame.TeamColor toMove;
+        if (end - start == 1 && fen.charAt(start) == 'w') {
+            toMove = ChessGame.TeamColor.WHITE;
+        } else if (end - start == 1 && fen.charAt(start) == 'b') {
+            toMove = ChessGame.TeamColor.BLACK;
+        } else {
+            throw invalid(fen, "side to move must be w or b");
+        }
+
+        start = nextField(fen, end);
+        end = fieldEnd(fen, start);
+        board.setCastlingRights(readCastling(fen, start, end));
+
+        start = nextField(fen, end);
+        end = fieldEnd(fen, start);
+        if (end - start == 1 && fen.charAt(start) == '-') {
+            board.setEnPassantSquare(-1);
+        } else {
+            int square = readSquare(fen, start, end);
+            int row = Bitboards.row(square);
+            if (row != (toMove == ChessGame.TeamColor.WHITE ? 6 : 3)) {
+                throw invalid(fen, "en passant square must be behind a pawn the side to move could take");
+            }
+            board.setEnPassantSquare(square);
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(toMove);
+        if (!isBlankFrom(fen, end)) {
+            start = nextField(fen, end);
+            end = fieldEnd(fen, start);
+            game.setHalfmoveClock(readNumber(fen, start, end));
+            start = nextField(fen, end);
+            end = fieldEnd(fen, start);
+            int moveNumber = readNumber(fen, start, end);
+            if (moveNumber < 1) {
+                throw invalid(fen, "move number must be at least 1");
+            }
+            game.setFullmoveNumber(moveNumber);
+            if (!isBlankFrom(fen, end)) {
+                throw invalid(fen, "unexpected text after the move number");
+            }
+        }
+        return game;
+    }
+
+    /**
+     * @param placement the first field of a FEN string
+     * @return a board with those pieces, no castling rights and no en passant square
+     * @throws IllegalArgumentException if the placement is not valid FEN
+     */
+    public static ChessBoard parsePlacement(String placement) {
+        ChessBoard board = new ChessBoard();
+        if (readPlacement(placement, board) != placement.length()) {
+            throw invalid(placement, "unexpected text after the piece placement");
+        }
+        board.setCastlingRights(0);
+        return board;
+    }
+
+    /**
+     * @param game the game to write out
+     * @return the game's position in FEN, all six fields
+     */
+    public static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+        appendPlacement(board, fen);
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.BLACK ? " b " : " w ");
+        int castling = board.getCastlingRights();
+        if (castling == 0) {
+            fen.append('-');
+        }
+        for (int i = 0; i < CASTLING_FLAGS.length; i++) {
+            if ((castling & CASTLING_FLAGS[i]) != 0) {
+                fen.append(CASTLING_LETTERS[i]);
+            }
+        }
+        fen.append(' ');
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant < 0) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + Bitboards.column(enPassant) - 1)).append(Bitboards.row(enPassant));
+        }
+        return fen.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber()).toString();
+    }
+
+    /**
+     * @param board the board to write out
+     * @return the piece placement field of the board's FEN
+     */
+    public static String formatPlacement(ChessBoard board) {
+        StringBuilder placement = new StringBuilder(72);
+        appendPlacement(board, placement);
+        return placement.toString();
+    }
+
+    private static void appendPlacement(ChessBoard board, StringBuilder fen) {
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                byte code = board.getPieceCode(Bitboards.square(row, col));
+                if (code == ChessPiece.NONE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(LETTERS[code]);
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+    }
+
+    // fills the board from the placement field, returning the index just past it
+    private static int readPlacement(String fen, ChessBoard board) {
+        int row = 8;
+        int col = 1;
+        int i = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw invalid(fen, "row " + row + " does not have 8 squares");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 9) {
+                    throw invalid(fen, "row " + row + " has more than 8 squares");
+                }
+            } else {
+                int code = pieceCode(c);
+                if (code == ChessPiece.NONE) {
+                    throw invalid(fen, "unknown piece '" + c + "'");
+                }
+                if (col > 8) {
+                    throw invalid(fen, "row " + row + " has more than 8 squares");
+                }
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.fromCode(code));
+                col++;
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw invalid(fen, "the placement must cover all 8 rows");
+        }
+        return i;
+    }
+
+    private static int readCastling(String fen, int start, int end) {
+        if (end - start == 1 && fen.charAt(start) == '-') {
+            return 0;
+        }
+        int rights = 0;
+        for (int i = start; i < end; i++) {
+            int flag = 0;
+            for (int j = 0; j < CASTLING_LETTERS.length; j++) {
+                if (fen.charAt(i) == CASTLING_LETTERS[j]) {
+                    flag = CASTLING_FLAGS[j];
+                }
+            }
+            if (flag == 0 || (rights & flag) != 0) {
+                throw invalid(fen, "castling rights must be - or some of KQkq");
+            }
+            rights |= flag;
+        }
+        if (rights == 0) {
+            throw invalid(fen, "missing castling rights");
+        }
+        return rights;
+    }
+
+    private static int readSquare(String fen, int start, int end) {
+        if (end - start != 2) {
+            throw invalid(fen, "bad square");
+        }
+        int col = fen.charAt(start) - 'a' + 1;
+        int row = fen.charAt(start + 1) - '0';
+        if (!Bitboards.onBoard(row, col)) {
+            throw invalid(fen, "bad square");
+        }
+        return Bitboards.square(row, col);
+    }
+
+    private static int readNumber(String fen, int start, int end) {
+        if (start == end || end - start > 6) {
+            throw invalid(fen, "bad move clock");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalid(fen, "bad move clock");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // index of the start of the field after the one ending at end, skipping the spaces between
+    private static int nextField(String fen, int end) {
+        int start = end;
+        while (start < fen.length() && fen.charAt(start) == ' ') {
+            start++;
+        }
+        if (start == end || start == fen.length()) {
+            throw invalid(fen, "too few fields");
+        }
+        return start;
+    }
+
+    private static int fieldEnd(String fen, int start) {
+        int end = start;
+        while (end < fen.length() && fen.charAt(end) != ' ') {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isBlankFrom(String fen, int start) {
+        for (int i = start; i < fen.length(); i++) {
+            if (fen.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int pieceCode(char c) {
+        for (int code = 1; code < LETTERS.length; code++) {
+            if (LETTERS[code] == c) {
+                return code;
+            }
+        }
+        return ChessPiece.NONE;
+    }
+
+    private static IllegalArgumentException invalid(String fen, String problem) {
+        return new IllegalArgumentException("Invalid FEN '" + fen + "': " + problem);
+    }
+}
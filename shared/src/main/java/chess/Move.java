@@ -0,0 +1,100 @@
+package chess;
+
+/**
+ * Packs a move into a single int so generators can fill plain int arrays
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square (see {@link Bitboards}),
+ * bits 12-14 the promotion piece as {@code PieceType.ordinal() + 1} (0 for none)
+ * and the bits above that the flags below. An en passant capture carries both
+ * {@link #CAPTURE} and {@link #EN_PASSANT}; castling is the king's move, two
+ * squares towards the rook, with {@link #CASTLE}.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    public static final int EN_PASSANT = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @return a quiet move with no promotion
+     */
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    /**
+     * @param promotion piece to promote to, or null
+     * @param flags     any of the flag constants or-ed together
+     * @return the packed move
+     */
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12) | flags;
+    }
+
+    /**
+     * @return the packed form of a ChessMove, without any flags
+     */
+    public static int of(ChessMove move) {
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> 12) & 7;
+        return promotionBits == 0 ? null : TYPES[promotionBits - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * @return the square of the piece a move takes: its end square, except for an en passant
+     * capture, where the pawn taken stands beside the mover, on its row in the end square's column
+     */
+    public static int captureSquare(int move) {
+        return isEnPassant(move) ? (from(move) & ~7) | (to(move) & 7) : to(move);
+    }
+
+    /**
+     * @return the move with its flags stripped, which is what two moves are compared by
+     */
+    public static int key(int move) {
+        return move & 0x7FFF;
+    }
+
+    /**
+     * @return the shared ChessMove this packed move stands for
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(move);
+    }
+}
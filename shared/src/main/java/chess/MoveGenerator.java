@@ -0,0 +1,374 @@
+package chess;
+
+/**
+ * Generates moves straight into a {@link MoveList}
+ * <p>
+ * Moves are written as packed ints (see {@link Move}), so filling a list
+ * allocates nothing. The {@code generate} methods are pseudo-legal: like
+ * {@link ChessPiece#pieceMoves}, they ignore whether a move leaves the mover's
+ * own king in danger. The {@code generateLegal} methods work out the checking
+ * pieces, the squares that answer a check and the pinned pieces once per
+ * position, and then keep only moves that respect them, so no move has to be
+ * tried on the board.
+ * <p>
+ * Castling and en passant depend on the board's castling rights and en passant
+ * square rather than on the piece alone, so only the legal methods produce them.
+ * Castling is only added when the king and rook are on their starting squares,
+ * the squares between them are empty and the king neither starts in, crosses nor
+ * lands on an attacked square. An en passant capture is checked by looking for
+ * attacks on the king with both pawns gone, which catches the rare case of the
+ * two pawns leaving a row open to an enemy rook.
+ */
+public final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+    private static final int WHITE_KING_HOME = Bitboards.square(1, 5);
+    private static final int BLACK_KING_HOME = Bitboards.square(8, 5);
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the pseudo-legal moves of every piece of a team
+     *
+     * @param board the board to generate on
+     * @param color which team's moves to generate
+     * @param moves list the moves are appended to
+     */
+    public static void generate(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        for (long pieces = board.getOccupancy(color); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            ChessPiece piece = board.getPiece(square);
+            generate(board, square, color, piece.getPieceType(), moves);
+        }
+    }
+
+    /**
+     * Adds the pseudo-legal moves of a single piece
+     *
+     * @param board  the board to generate on
+     * @param square square the piece stands on
+     * @param color  color of the moving piece
+     * @param type   type of the moving piece
+     * @param moves  list the moves are appended to
+     */
+    public static void generate(ChessBoard board, int square, ChessGame.TeamColor color,
+                                ChessPiece.PieceType type, MoveList moves) {
+        long occupied = board.getOccupancy();
+        long enemies = board.getOccupancy(color.opponent());
+        long targets = ~board.getOccupancy(color);
+        switch (type) {
+            case KING -> addMoves(square, Attacks.kingAttacks(square) & targets, enemies, moves);
+            case QUEEN -> addMoves(square, Attacks.queenAttacks(square, occupied) & targets, enemies, moves);
+            case BISHOP -> addMoves(square, Attacks.bishopAttacks(square, occupied) & targets, enemies, moves);
+            case KNIGHT -> addMoves(square, Attacks.knightAttacks(square) & targets, enemies, moves);
+            case ROOK -> addMoves(square, Attacks.rookAttacks(square, occupied) & targets, enemies, moves);
+            case PAWN -> addPawnMoves(square, color, occupied, enemies, moves);
+        }
+    }
+
+    /**
+     * Adds the legal moves of every piece of a team
+     *
+     * @param board the board to generate on
+     * @param color which team's moves to generate
+     * @param moves list the moves are appended to
+     */
+    public static void generateLegal(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        int kingSquare = board.getKingSquare(color);
+        long checkers = checkers(board, color, kingSquare);
+        long evasions = evasionMask(kingSquare, checkers);
+        long pinned = pinned(board, color, kingSquare);
+        for (long pieces = board.getOccupancy(color); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            int start = moves.size();
+            generate(board, square, color, board.getPiece(square).getPieceType(), moves);
+            keepLegal(board, color, kingSquare, evasions, pinned, moves, start);
+        }
+        addCastling(board, color, kingSquare, checkers, moves);
+        addEnPassant(board, color, kingSquare, -1L, moves);
+    }
+
+    /**
+     * Adds the legal moves of the piece on a square
+     *
+     * @param board  the board to generate on
+     * @param square square of the piece to move
+     * @param moves  list the moves are appended to
+     */
+    public static void generateLegal(ChessBoard board, int square, MoveList moves) {
+        ChessPiece piece = board.getPiece(square);
+        ChessGame.TeamColor color = piece.getTeamColor();
+        int kingSquare = board.getKingSquare(color);
+        long checkers = checkers(board, color, kingSquare);
+        int start = moves.size();
+        generate(board, square, color, piece.getPieceType(), moves);
+        keepLegal(board, color, kingSquare, evasionMask(kingSquare, checkers), pinned(board, color, kingSquare),
+                moves, start);
+        if (square == kingSquare) {
+            addCastling(board, color, kingSquare, checkers, moves);
+        } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            addEnPassant(board, color, kingSquare, 1L << square, moves);
+        }
+    }
+
+    /**
+     * Checks whether a team has any legal move at all, stopping at the first one found
+     *
+     * @param board the board to look at
+     * @param color the team to move
+     * @return true if at least one legal move exists
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor color) {
+        int kingSquare = board.getKingSquare(color);
+        long own = board.getOccupancy(color);
+        long occupied = board.getOccupancy();
+        long pieces = own;
+        // the king is the piece most likely to have a move, so try it first
+        if (kingSquare >= 0) {
+            pieces &= ~(1L << kingSquare);
+            // a square the king steps to must not be attacked, looking through where it stands now
+            long withoutKing = occupied ^ (1L << kingSquare);
+            for (long targets = Attacks.kingAttacks(kingSquare) & ~own; targets != 0; targets &= targets - 1) {
+                if (board.getAttackers(Long.numberOfTrailingZeros(targets), color.opponent(), withoutKing) == 0) {
+                    return true;
+                }
+            }
+        }
+        // castling is never the only move, as the king could stop on the square it crosses,
+        // but an en passant capture can be
+        if (enPassantPawns(board, color, kingSquare, -1L) != 0) {
+            return true;
+        }
+        long checkers = checkers(board, color, kingSquare);
+        // in double check only the king can move
+        if (Long.bitCount(checkers) > 1) {
+            return false;
+        }
+        long evasions = evasionMask(kingSquare, checkers);
+        long pinned = pinned(board, color, kingSquare);
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            long targets = targets(board, square, color, board.getPiece(square).getPieceType(), occupied)
+                    & ~own & evasions;
+            if ((pinned & (1L << square)) != 0) {
+                targets &= Attacks.line(kingSquare, square);
+            }
+            if (targets != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // squares a piece other than the king could move to, own pieces included
+    private static long targets(ChessBoard board, int square, ChessGame.TeamColor color, ChessPiece.PieceType type,
+                                long occupied) {
+        return switch (type) {
+            case KING -> Attacks.kingAttacks(square);
+            case QUEEN -> Attacks.queenAttacks(square, occupied);
+            case BISHOP -> Attacks.bishopAttacks(square, occupied);
+            case KNIGHT -> Attacks.knightAttacks(square);
+            case ROOK -> Attacks.rookAttacks(square, occupied);
+            case PAWN -> {
+                boolean white = color == ChessGame.TeamColor.WHITE;
+                int row = Bitboards.row(square);
+                if (row == (white ? 8 : 1)) {
+                    yield 0;
+                }
+                long targets = Attacks.pawnAttacks(color, square) & board.getOccupancy(color.opponent());
+                int forward = white ? 8 : -8;
+                int to = square + forward;
+                if ((occupied & (1L << to)) == 0) {
+                    targets |= 1L << to;
+                    if (row == (white ? 2 : 7) && (occupied & (1L << (to + forward))) == 0) {
+                        targets |= 1L << (to + forward);
+                    }
+                }
+                yield targets;
+            }
+        };
+    }
+
+    // enemy pieces giving check
+    private static long checkers(ChessBoard board, ChessGame.TeamColor color, int kingSquare) {
+        if (kingSquare < 0) {
+            return 0;
+        }
+        return board.getAttackers(kingSquare, color.opponent(), board.getOccupancy());
+    }
+
+    // squares a non-king move must land on: anywhere when not in check, the checker or a
+    // square blocking it in single check, and nowhere in double check
+    private static long evasionMask(int kingSquare, long checkers) {
+        if (checkers == 0) {
+            return -1L;
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return 0;
+        }
+        return checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+    }
+
+    // our pieces that are the only thing between the king and an enemy slider
+    private static long pinned(ChessBoard board, ChessGame.TeamColor color, int kingSquare) {
+        if (kingSquare < 0) {
+            return 0;
+        }
+        ChessGame.TeamColor enemy = color.opponent();
+        long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+        long straight = board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens;
+        long diagonal = board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens;
+        long snipers = (Attacks.rookAttacks(kingSquare, 0) & straight)
+                | (Attacks.bishopAttacks(kingSquare, 0) & diagonal);
+        long occupied = board.getOccupancy();
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.getOccupancy(color);
+            }
+        }
+        return pinned;
+    }
+
+    // drops the moves added since start that would leave the king in check
+    private static void keepLegal(ChessBoard board, ChessGame.TeamColor color, int kingSquare, long evasions,
+                                  long pinned, MoveList moves, int start) {
+        if (kingSquare < 0) {
+            return;
+        }
+        long occupied = board.getOccupancy();
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            long to = 1L << Move.to(move);
+            boolean legal;
+            if (from == kingSquare) {
+                // the king may not step onto an attacked square, looking through where it stands now
+                legal = board.getAttackers(Move.to(move), color.opponent(), occupied ^ (1L << from)) == 0;
+            } else {
+                legal = (to & evasions) != 0
+                        && ((pinned & (1L << from)) == 0 || (to & Attacks.line(kingSquare, from)) != 0);
+            }
+            if (legal) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    // castling moves the side still has the right to and can play now
+    private static void addCastling(ChessBoard board, ChessGame.TeamColor color, int kingSquare, long checkers,
+                                    MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int rights = board.getCastlingRights()
+                & (white ? ChessBoard.WHITE_KINGSIDE | ChessBoard.WHITE_QUEENSIDE
+                : ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE);
+        if (rights == 0 || checkers != 0 || kingSquare != (white ? WHITE_KING_HOME : BLACK_KING_HOME)) {
+            return;
+        }
+        int kingside = white ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE;
+        if ((rights & kingside) != 0 && canCastle(board, color, kingSquare, kingSquare + 3, 1)) {
+            moves.add(Move.of(kingSquare, kingSquare + 2) | Move.CASTLE);
+        }
+        if ((rights & ~kingside) != 0 && canCastle(board, color, kingSquare, kingSquare - 4, -1)) {
+            moves.add(Move.of(kingSquare, kingSquare - 2) | Move.CASTLE);
+        }
+    }
+
+    private static boolean canCastle(ChessBoard board, ChessGame.TeamColor color, int kingSquare, int rookSquare,
+                                     int step) {
+        if ((board.getPieces(color, ChessPiece.PieceType.ROOK) & (1L << rookSquare)) == 0
+                || (board.getOccupancy() & Attacks.between(kingSquare, rookSquare)) != 0) {
+            return false;
+        }
+        ChessGame.TeamColor enemy = color.opponent();
+        return !board.isSquareAttacked(kingSquare + step, enemy)
+                && !board.isSquareAttacked(kingSquare + 2 * step, enemy);
+    }
+
+    // en passant captures onto the board's en passant square by the pawns in from
+    private static void addEnPassant(ChessBoard board, ChessGame.TeamColor color, int kingSquare, long from,
+                                     MoveList moves) {
+        for (long pawns = enPassantPawns(board, color, kingSquare, from); pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            moves.add(Move.of(square, board.getEnPassantSquare()) | Move.CAPTURE | Move.EN_PASSANT);
+        }
+    }
+
+    // the pawns in from that can legally capture en passant
+    private static long enPassantPawns(ChessBoard board, ChessGame.TeamColor color, int kingSquare, long from) {
+        int target = board.getEnPassantSquare();
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        if (target < 0 || Bitboards.row(target) != (white ? 6 : 3)) {
+            return 0;
+        }
+        ChessGame.TeamColor enemy = color.opponent();
+        long taken = 1L << (white ? target - 8 : target + 8);
+        if ((board.getPieces(enemy, ChessPiece.PieceType.PAWN) & taken) == 0
+                || (board.getOccupancy() & (1L << target)) != 0) {
+            return 0;
+        }
+        long pawns = Attacks.pawnAttacks(enemy, target) & board.getPieces(color, ChessPiece.PieceType.PAWN) & from;
+        long legal = 0;
+        for (; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            if (kingSquare >= 0) {
+                // both pawns leave the row, which may uncover the king
+                long occupied = (board.getOccupancy() ^ (1L << square) ^ taken) | (1L << target);
+                if ((board.getAttackers(kingSquare, enemy, occupied) & ~taken) != 0) {
+                    continue;
+                }
+            }
+            legal |= 1L << square;
+        }
+        return legal;
+    }
+
+    private static void addMoves(int from, long targets, long enemies, MoveList moves) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.of(from, to) | ((enemies & (1L << to)) != 0 ? Move.CAPTURE : 0));
+        }
+    }
+
+    private static void addPawnMoves(int from, ChessGame.TeamColor color, long occupied, long enemies,
+                                     MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int row = Bitboards.row(from);
+        int startRow = white ? 2 : 7;
+        int lastRow = white ? 8 : 1;
+        if (row == lastRow) {
+            return;
+        }
+
+        // move forward, two squares from the starting row if both are empty
+        int to = from + forward;
+        if ((occupied & (1L << to)) == 0) {
+            addPawnMove(from, to, lastRow, 0, moves);
+            if (row == startRow && (occupied & (1L << (to + forward))) == 0) {
+                moves.add(Move.of(from, to + forward) | Move.DOUBLE_PUSH);
+            }
+        }
+        // capture diagonally
+        for (long captures = Attacks.pawnAttacks(color, from) & enemies; captures != 0; captures &= captures - 1) {
+            addPawnMove(from, Long.numberOfTrailingZeros(captures), lastRow, Move.CAPTURE, moves);
+        }
+    }
+
+    private static void addPawnMove(int from, int to, int lastRow, int flags, MoveList moves) {
+        if (Bitboards.row(to) == lastRow) {
+            for (ChessPiece.PieceType type : PROMOTION_TYPES) {
+                moves.add(Move.of(from, to, type, flags));
+            }
+        } else {
+            moves.add(Move.of(from, to) | flags);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A reusable, growable list of packed moves (see {@link Move})
+ * <p>
+ * Clearing keeps the backing array, so one list can be refilled for every
+ * position without allocating.
+ */
+public class MoveList {
+
+    /**
+     * No legal chess position has more moves than this
+     */
+    public static final int MAX_MOVES = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(MAX_MOVES);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(8, size * 2));
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from the given index on
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * @return the moves as ChessMove objects, for callers of the Collection based API
+     */
+    public Collection<ChessMove> toChessMoves() {
+        Collection<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
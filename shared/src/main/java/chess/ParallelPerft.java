@@ -0,0 +1,136 @@
+package chess;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft spread over a {@link ForkJoinPool}
+ * <p>
+ * The tree is split at the root (and, if asked, a few plies below it): each
+ * subtree gets its own copy of the board, so workers never share mutable state
+ * and the counts are identical to {@link Perft#perft}. The same pool is used to
+ * count many positions at once for batch jobs.
+ */
+public final class ParallelPerft {
+
+    private ParallelPerft() {
+    }
+
+    /**
+     * Counts leaf nodes like {@link Perft#perft}, splitting only the root moves across the common pool
+     *
+     * @param game  the position to count from; it is not modified
+     * @param depth how many plies deep to count
+     * @return the number of positions reached at that depth
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game, depth, 1, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts leaf nodes like {@link Perft#perft} in parallel
+     *
+     * @param game       the position to count from; it is not modified
+     * @param depth      how many plies deep to count
+     * @param splitDepth how many plies from the root get their own task per move; 1 splits
+     *                   only the root, more gives smaller tasks for wide pools
+     * @param pool       pool to run the tasks on
+     * @return the number of positions reached at that depth
+     */
+    public static long perft(ChessGame game, int depth, int splitDepth, ForkJoinPool pool) {
+        ChessBoard board = new ChessBoard(game.getBoard());
+        return pool.invoke(new PerftTask(board, game.getTeamTurn(), depth, splitDepth));
+    }
+
+    /**
+     * Counts every game in a batch to the same depth, one task per game
+     *
+     * @param games the positions to count; none are modified
+     * @param depth how many plies deep to count
+     * @param pool  pool to run the tasks on
+     * @return node counts in the same order as the games
+     */
+    public static long[] perftAll(List<ChessGame> games, int depth, ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<long[]>() {
+            @Override
+            protected long[] compute() {
+                PerftTask[] tasks = new PerftTask[games.size()];
+                for (int i = 0; i < tasks.length; i++) {
+                    ChessGame game = games.get(i);
+                    tasks[i] = new PerftTask(new ChessBoard(game.getBoard()), game.getTeamTurn(), depth, 0);
+                }
+                invokeAll(tasks);
+                long[] counts = new long[tasks.length];
+                for (int i = 0; i < tasks.length; i++) {
+                    counts[i] = tasks[i].join();
+                }
+                return counts;
+            }
+        });
+    }
+
+    // counts one subtree on a board it owns
+    private static class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        // tasks are never serialized; the board only lives for the count
+        private final transient ChessBoard board;
+        private final ChessGame.TeamColor color;
+        private final int depth;
+        private final int splitDepth;
+
+        PerftTask(ChessBoard board, ChessGame.TeamColor color, int depth, int splitDepth) {
+            this.board = board;
+            this.color = color;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (splitDepth <= 0 || depth <= 1) {
+                return Perft.perft(board, color, depth);
+            }
+            MoveList moves = new MoveList();
+            MoveGenerator.generateLegal(board, color, moves);
+            PerftTask[] children = new PerftTask[moves.size()];
+            for (int i = 0; i < children.length; i++) {
+                ChessBoard child = new ChessBoard(board);
+                child.makeMove(moves.get(i));
+                child.clearUndo();
+                children[i] = new PerftTask(child, color.opponent(), depth - 1, splitDepth - 1);
+            }
+            invokeAll(children);
+            long nodes = 0;
+            for (PerftTask child : children) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Runs the reference suite in parallel on the common pool and prints counts and speed
+     */
+    public static void main(String[] args) {
+        int splitDepth = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.println("threads: " + pool.getParallelism() + ", split depth: " + splitDepth);
+        boolean allPassed = true;
+        for (Perft.Reference reference : Perft.REFERENCE_POSITIONS) {
+            ChessGame game = reference.toGame();
+            int depth = reference.counts().length;
+            long start = System.nanoTime();
+            long nodes = perft(game, depth, splitDepth, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long expected = reference.counts()[depth - 1];
+            allPassed &= nodes == expected;
+            System.out.printf("%-20s depth %d: %,12d %s  %.3fs  %,.0f nodes/s%n", reference.name(), depth,
+                    nodes, nodes == expected ? "ok" : "EXPECTED " + expected, seconds, nodes / seconds);
+        }
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+}
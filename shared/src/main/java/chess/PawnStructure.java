@@ -0,0 +1,183 @@
+package chess;
+
+/**
+ * Scores pawn structure, with a small cache of results keyed by the pawns alone
+ * <p>
+ * Passed pawns earn a bonus that grows as they advance, and doubled, isolated
+ * and backward pawns are penalised, each with a middlegame and an endgame value
+ * blended by the board's phase like {@link Evaluation}. Pawns move far less
+ * often than other pieces, so a search meets the same pawn placement over and
+ * over; results are cached under the board's pawn key (see
+ * {@link ChessBoard#getPawnKey()}) together with the set of passed pawns.
+ * <p>
+ * A PawnStructure is not safe to share between threads; give each search its own.
+ */
+public final class PawnStructure {
+
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    // by rank from the pawn's side, index 1 being its own back row
+    private static final int[] PASSED_MIDGAME = {0, 0, 5, 10, 20, 35, 60, 100, 0};
+    private static final int[] PASSED_ENDGAME = {0, 0, 10, 20, 40, 70, 120, 200, 0};
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    private static final int BACKWARD_MIDGAME = -8;
+    private static final int BACKWARD_ENDGAME = -10;
+
+    private static final long[] ADJACENT_FILES = new long[8];
+    // per color and square: the squares ahead on the same file
+    private static final long[][] FORWARD_FILE = new long[2][64];
+    // per color and square: the squares ahead on the same and adjacent files, which must hold no enemy pawn
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    // per color and square: squares on adjacent files level with or behind the square, where a supporter would be
+    private static final long[][] SUPPORT_SPAN = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            long adjacent = 0;
+            if (file > 0) {
+                adjacent |= Bitboards.FILE_A << (file - 1);
+            }
+            if (file < 7) {
+                adjacent |= Bitboards.FILE_A << (file + 1);
+            }
+            ADJACENT_FILES[file] = adjacent;
+        }
+        for (int square = 0; square < 64; square++) {
+            long file = Bitboards.FILE_A << (square & 7);
+            long adjacent = ADJACENT_FILES[square & 7];
+            // rows strictly above and strictly below the square
+            long above = square >= 56 ? 0 : -1L << (Bitboards.row(square) * 8);
+            long below = (1L << ((Bitboards.row(square) - 1) * 8)) - 1;
+            long rowMask = Bitboards.RANK_1 << ((Bitboards.row(square) - 1) * 8);
+            int white = ChessGame.TeamColor.WHITE.ordinal();
+            int black = ChessGame.TeamColor.BLACK.ordinal();
+            FORWARD_FILE[white][square] = file & above;
+            FORWARD_FILE[black][square] = file & below;
+            PASSED_SPAN[white][square] = (file | adjacent) & above;
+            PASSED_SPAN[black][square] = (file | adjacent) & below;
+            SUPPORT_SPAN[white][square] = adjacent & (below | rowMask);
+            SUPPORT_SPAN[black][square] = adjacent & (above | rowMask);
+        }
+    }
+
+    private final long[] keys;
+    private final int[] midgameScores;
+    private final int[] endgameScores;
+    private final long[] passedPawns;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    /**
+     * Creates a cache of {@link #DEFAULT_ENTRIES}
+     */
+    public PawnStructure() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * @param entries how many pawn placements to cache, rounded down to a power of two
+     */
+    public PawnStructure(int entries) {
+        if (entries < 1) {
+            throw new IllegalArgumentException("Need at least one entry: " + entries);
+        }
+        int size = Integer.highestOneBit(entries);
+        // an empty slot has key 0 and scores 0, which is also the right answer for a board with no pawns
+        keys = new long[size];
+        midgameScores = new int[size];
+        endgameScores = new int[size];
+        passedPawns = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @param board the position to score
+     * @return the pawn structure score in centipawns, positive when white's pawns are better
+     */
+    public int evaluate(ChessBoard board) {
+        int slot = probe(board);
+        int phase = Math.min(board.getPhase(), Evaluation.MAX_PHASE);
+        return (midgameScores[slot] * phase + endgameScores[slot] * (Evaluation.MAX_PHASE - phase))
+                / Evaluation.MAX_PHASE;
+    }
+
+    /**
+     * @param board the position to look at
+     * @return every passed pawn on the board, both colors
+     */
+    public long passedPawns(ChessBoard board) {
+        return passedPawns[probe(board)];
+    }
+
+    /**
+     * @return how many lookups were made
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * @return how many lookups were answered from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    // finds or fills the slot for the board's pawns
+    private int probe(ChessBoard board) {
+        long key = board.getPawnKey();
+        int slot = (int) key & mask;
+        probes++;
+        if (keys[slot] == key) {
+            hits++;
+            return slot;
+        }
+        int midgame = 0;
+        int endgame = 0;
+        long passed = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int us = color.ordinal();
+            int sign = color == ChessGame.TeamColor.WHITE ? 1 : -1;
+            long ours = board.getPieces(color, ChessPiece.PieceType.PAWN);
+            long theirs = board.getPieces(color.opponent(), ChessPiece.PieceType.PAWN);
+            for (long pawns = ours; pawns != 0; pawns &= pawns - 1) {
+                int square = Long.numberOfTrailingZeros(pawns);
+                int rank = color == ChessGame.TeamColor.WHITE ? Bitboards.row(square) : 9 - Bitboards.row(square);
+                boolean isolated = (ours & ADJACENT_FILES[square & 7]) == 0;
+                if ((theirs & PASSED_SPAN[us][square]) == 0) {
+                    passed |= 1L << square;
+                    midgame += sign * PASSED_MIDGAME[rank];
+                    endgame += sign * PASSED_ENDGAME[rank];
+                }
+                // only the pawns with another of ours in front count, so a file of n pawns costs n - 1 penalties
+                if ((ours & FORWARD_FILE[us][square]) != 0) {
+                    midgame += sign * DOUBLED_MIDGAME;
+                    endgame += sign * DOUBLED_ENDGAME;
+                }
+                if (isolated) {
+                    midgame += sign * ISOLATED_MIDGAME;
+                    endgame += sign * ISOLATED_ENDGAME;
+                } else if (rank < 8 && (ours & SUPPORT_SPAN[us][square]) == 0
+                        && isStopAttacked(color, square, theirs)) {
+                    midgame += sign * BACKWARD_MIDGAME;
+                    endgame += sign * BACKWARD_ENDGAME;
+                }
+            }
+        }
+        keys[slot] = key;
+        midgameScores[slot] = midgame;
+        endgameScores[slot] = endgame;
+        passedPawns[slot] = passed;
+        return slot;
+    }
+
+    // a backward pawn cannot advance without being taken by an enemy pawn
+    private static boolean isStopAttacked(ChessGame.TeamColor color, int square, long theirs) {
+        int stop = color == ChessGame.TeamColor.WHITE ? square + 8 : square - 8;
+        return (Attacks.pawnAttacks(color, stop) & theirs) != 0;
+    }
+}
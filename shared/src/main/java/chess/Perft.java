@@ -0,0 +1,175 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Perft: counts the leaf nodes of the legal move tree to a fixed depth
+ * <p>
+ * The counts for standard positions are published, so perft is the way to
+ * check the move generator is exactly right, and timing it gives the
+ * generator's speed in nodes per second. Run {@code main} for the whole
+ * reference suite, or {@code main divide <depth>} to split the starting
+ * position's count by first move.
+ */
+public final class Perft {
+
+    /**
+     * A position with its published perft counts, counts[i] being the count at depth i + 1
+     *
+     * @param name   what the position is usually called
+     * @param fen    the position in FEN
+     * @param counts expected node counts by depth
+     */
+    public record Reference(String name, String fen, long[] counts) {
+
+        /**
+         * @return a new game set up in this position
+         */
+        public ChessGame toGame() {
+            return ChessGame.fromFen(fen);
+        }
+    }
+
+    /**
+     * The usual perft suite, between them covering castling, en passant, promotion and
+     * discovered checks, to the depths whose counts are published
+     */
+    public static final List<Reference> REFERENCE_POSITIONS = List.of(
+            new Reference("start", Fen.START, new long[]{20, 400, 8902, 197281, 4865609}),
+            new Reference("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[]{14, 191, 2812, 43238, 674624}),
+            new Reference("position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    new long[]{46, 2079, 89890, 3894594}),
+            new Reference("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[]{48, 2039, 97862, 4085603}),
+            new Reference("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[]{6, 264, 9467, 422333}),
+            new Reference("position 4 mirrored", "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1",
+                    new long[]{6, 264, 9467, 422333}),
+            new Reference("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[]{44, 1486, 62379, 2103487})
+    );
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree below the game's current position.
+     * The game's board is walked with makeMove/unmakeMove and left as it was.
+     *
+     * @param game  the position to count from, with its side to move
+     * @param depth how many plies deep to count
+     * @return the number of positions reached at that depth
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game.getBoard(), game.getTeamTurn(), depth);
+    }
+
+    // serial count on a bare board, shared with ParallelPerft
+    static long perft(ChessBoard board, ChessGame.TeamColor color, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        return perft(board, color, depth, newLists(depth));
+    }
+
+    /**
+     * Splits a perft count by the first move, the usual way to find which move a
+     * generator gets wrong
+     *
+     * @param game  the position to count from
+     * @param depth how many plies deep to count, at least 1
+     * @return node count below each legal first move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        ChessBoard board = game.getBoard();
+        MoveList[] lists = newLists(depth);
+        MoveList moves = lists[depth];
+        moves.clear();
+        MoveGenerator.generateLegal(board, game.getTeamTurn(), moves);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            long nodes = depth == 1 ? 1 : perft(board, game.getTeamTurn().opponent(), depth - 1, lists);
+            board.unmakeMove();
+            counts.put(Move.toChessMove(move), nodes);
+        }
+        return counts;
+    }
+
+    // one list per remaining depth, so the walk allocates nothing
+    private static MoveList[] newLists(int depth) {
+        MoveList[] lists = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+
+    private static long perft(ChessBoard board, ChessGame.TeamColor color, int depth, MoveList[] lists) {
+        MoveList moves = lists[depth];
+        moves.clear();
+        MoveGenerator.generateLegal(board, color, moves);
+        // the generator is legal, so the last ply is just a count
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, color.opponent(), depth - 1, lists);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Runs the reference suite and prints counts and speed, or with
+     * {@code divide <depth>} prints the starting position split by first move
+     */
+    public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals("divide")) {
+            int depth = Integer.parseInt(args[1]);
+            long total = 0;
+            for (Map.Entry<ChessMove, Long> entry : divide(new ChessGame(), depth).entrySet()) {
+                System.out.printf("%s: %d%n", moveName(entry.getKey()), entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.println("total: " + total);
+            return;
+        }
+        boolean allPassed = true;
+        for (Reference reference : REFERENCE_POSITIONS) {
+            ChessGame game = reference.toGame();
+            for (int depth = 1; depth <= reference.counts().length; depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(game, depth);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long expected = reference.counts()[depth - 1];
+                allPassed &= nodes == expected;
+                System.out.printf("%-20s depth %d: %,12d %s  %.3fs  %,.0f nodes/s%n", reference.name(), depth,
+                        nodes, nodes == expected ? "ok" : "EXPECTED " + expected, seconds, nodes / seconds);
+            }
+        }
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+
+    // long algebraic notation, e.g. e2e4 or a7a8q
+    private static String moveName(ChessMove move) {
+        String name = squareName(move.getStartPosition()) + squareName(move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            name += move.getPromotionPiece() == ChessPiece.PieceType.KNIGHT
+                    ? "n" : move.getPromotionPiece().name().substring(0, 1).toLowerCase();
+        }
+        return name;
+    }
+
+    private static String squareName(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+}
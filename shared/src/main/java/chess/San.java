@@ -0,0 +1,248 @@
+package chess;
+
+/**
+ * Reads and writes moves in standard algebraic notation, e.g. e4, Nbd7, exd8=Q+, O-O
+ * <p>
+ * Both directions work from the list of legal moves for the position, which the
+ * caller generates once and can pass to any number of calls, so resolving or naming
+ * a move never generates more than that one list. Reading accepts the check, mate
+ * and move quality marks (+ # ! ?) but doesn't require them; writing adds + or #
+ * after making the move on the board and taking it back, looking for a single
+ * legal reply only when the move gives check. Castling is read with either letter
+ * O or digit 0.
+ */
+public final class San {
+
+    // indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final char[] LETTERS = {'K', 'Q', 'B', 'N', 'R', 'P'};
+
+    private San() {
+    }
+
+    /**
+     * @param game the position the move is played in
+     * @param san  the move in standard algebraic notation
+     * @return the move
+     * @throws IllegalArgumentException if the text is not a legal move in the position, or is ambiguous
+     */
+    public static ChessMove parse(ChessGame game, String san) {
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(game.getBoard(), game.getTeamTurn(), legal);
+        return Move.toChessMove(parse(game.getBoard(), legal, san));
+    }
+
+    /**
+     * @param game the position the move is played in
+     * @param move a legal move in the position
+     * @return the move in standard algebraic notation
+     * @throws IllegalArgumentException if the move is not legal in the position
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(game.getBoard(), game.getTeamTurn(), legal);
+        return format(game.getBoard(), legal, find(legal, Move.of(move)));
+    }
+
+    /**
+     * @param board the position the move is played in
+     * @param legal the legal moves in the position, from {@link MoveGenerator#generateLegal}
+     * @param san   the move in standard algebraic notation
+     * @return the packed move (see {@link Move}) from the legal list
+     * @throws IllegalArgumentException if the text is not one of the legal moves, or is ambiguous
+     */
+    public static int parse(ChessBoard board, MoveList legal, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if (end == 0) {
+            throw invalid(san, "empty move");
+        }
+        if (san.charAt(0) == 'O' || san.charAt(0) == '0') {
+            return parseCastle(legal, san, end);
+        }
+        ChessPiece.PieceType type = pieceType(san.charAt(0));
+        int i = 0;
+        if (type == null) {
+            type = ChessPiece.PieceType.PAWN;
+        } else {
+            i++;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (end - i >= 2 && san.charAt(end - 2) == '=') {
+            promotion = pieceType(san.charAt(end - 1));
+            if (promotion == null || promotion == ChessPiece.PieceType.KING) {
+                throw invalid(san, "bad promotion piece");
+            }
+            end -= 2;
+        } else if (type == ChessPiece.PieceType.PAWN && end - i >= 3 && pieceType(san.charAt(end - 1)) != null) {
+            // the promotion written without the =, as in e8Q
+            promotion = pieceType(san.charAt(end - 1));
+            end--;
+        }
+        if (end - i < 2 || !isFile(san.charAt(end - 2)) || !isRank(san.charAt(end - 1))) {
+            throw invalid(san, "no destination square");
+        }
+        int to = Bitboards.square(san.charAt(end - 1) - '0', san.charAt(end - 2) - 'a' + 1);
+        int fromCol = 0;
+        int fromRow = 0;
+        for (int j = i; j < end - 2; j++) {
+            char c = san.charAt(j);
+            if (isFile(c)) {
+                fromCol = c - 'a' + 1;
+            } else if (isRank(c)) {
+                fromRow = c - '0';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw invalid(san, "unexpected '" + c + "'");
+            }
+        }
+
+        int found = Move.NONE;
+        for (int j = 0; j < legal.size(); j++) {
+            int move = legal.get(j);
+            int from = Move.from(move);
+            if (Move.to(move) == to && Move.promotion(move) == promotion
+                    && board.getPiece(from).getPieceType() == type
+                    && (fromCol == 0 || Bitboards.column(from) == fromCol)
+                    && (fromRow == 0 || Bitboards.row(from) == fromRow)) {
+                if (found != Move.NONE) {
+                    throw invalid(san, "ambiguous");
+                }
+                found = move;
+            }
+        }
+        if (found == Move.NONE) {
+            throw invalid(san, "not legal");
+        }
+        return found;
+    }
+
+    /**
+     * Names a move, leaving the board as it was
+     *
+     * @param board the position the move is played in
+     * @param legal the legal moves in the position, from {@link MoveGenerator#generateLegal}
+     * @param move  one of the legal moves
+     * @return the move in standard algebraic notation, with + or # if it gives check or mate
+     */
+    public static String format(ChessBoard board, MoveList legal, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(from);
+        ChessPiece.PieceType type = piece.getPieceType();
+        StringBuilder san = new StringBuilder(8);
+        if (Move.isCastle(move)) {
+            san.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == ChessPiece.PieceType.PAWN) {
+            if (Move.isCapture(move)) {
+                san.append(fileLetter(from)).append('x');
+            }
+        } else {
+            san.append(LETTERS[type.ordinal()]);
+            // name the start file, rank or both when another piece of the same kind could also go there
+            boolean ambiguous = false;
+            boolean sameFile = false;
+            boolean sameRow = false;
+            for (int i = 0; i < legal.size(); i++) {
+                int other = Move.from(legal.get(i));
+                if (other != from && Move.to(legal.get(i)) == to && board.getPiece(other).getPieceType() == type) {
+                    ambiguous = true;
+                    sameFile |= Bitboards.column(other) == Bitboards.column(from);
+                    sameRow |= Bitboards.row(other) == Bitboards.row(from);
+                }
+            }
+            if (ambiguous && (!sameFile || sameRow)) {
+                san.append(fileLetter(from));
+            }
+            if (sameFile) {
+                san.append(Bitboards.row(from));
+            }
+            if (Move.isCapture(move)) {
+                san.append('x');
+            }
+        }
+        if (!Move.isCastle(move)) {
+            san.append(fileLetter(to)).append(Bitboards.row(to));
+        }
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            san.append('=').append(LETTERS[promotion.ordinal()]);
+        }
+
+        ChessGame.TeamColor opponent = piece.getTeamColor().opponent();
+        board.makeMove(move);
+        int king = board.getKingSquare(opponent);
+        if (king >= 0 && board.isSquareAttacked(king, opponent.opponent())) {
+            san.append(MoveGenerator.hasLegalMove(board, opponent) ? '+' : '#');
+        }
+        board.unmakeMove();
+        return san.toString();
+    }
+
+    // O-O or O-O-O, also written with zeros
+    private static int parseCastle(MoveList legal, CharSequence san, int end) {
+        char letter = san.charAt(0);
+        boolean kingside;
+        if (end == 3 && san.charAt(1) == '-' && san.charAt(2) == letter) {
+            kingside = true;
+        } else if (end == 5 && san.charAt(1) == '-' && san.charAt(2) == letter
+                && san.charAt(3) == '-' && san.charAt(4) == letter) {
+            kingside = false;
+        } else {
+            throw invalid(san, "bad castling");
+        }
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            if (Move.isCastle(move) && (Move.to(move) > Move.from(move)) == kingside) {
+                return move;
+            }
+        }
+        throw invalid(san, "not legal");
+    }
+
+    /**
+     * @return the legal move with the same squares and promotion as the given one, flags included
+     * @throws IllegalArgumentException if there is none
+     */
+    static int find(MoveList legal, int move) {
+        int key = Move.key(move);
+        for (int i = 0; i < legal.size(); i++) {
+            if (Move.key(legal.get(i)) == key) {
+                return legal.get(i);
+            }
+        }
+        throw new IllegalArgumentException("Not a legal move: " + Move.toChessMove(move));
+    }
+
+    private static ChessPiece.PieceType pieceType(char letter) {
+        return switch (letter) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+
+    // check, mate and move quality marks, which say nothing about the move itself
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static char fileLetter(int square) {
+        return (char) ('a' + Bitboards.column(square) - 1);
+    }
+
+    private static IllegalArgumentException invalid(CharSequence san, String problem) {
+        return new IllegalArgumentException("Can't read move " + san + ": " + problem);
+    }
+}
@@ -0,0 +1,130 @@
+package chess;
+
+/**
+ * Static exchange evaluation: what a capture wins or loses once both sides
+ * have finished recapturing on its square
+ * <p>
+ * The exchange is worked out from attack lookups alone. Each side recaptures
+ * with its least valuable attacker, removing it from a private occupancy mask
+ * so that sliders lined up behind it join in, and either side may stop
+ * capturing when carrying on would lose material. Nothing is played on the
+ * board. Pins are not taken into account.
+ */
+public final class StaticExchange {
+
+    // indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] VALUES = {20000, 900, 330, 320, 500, 100};
+    private static final ChessPiece.PieceType[] CHEAPEST_FIRST = {
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING
+    };
+    // per-thread buffers, as this runs for every capture in quiescence search
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private StaticExchange() {
+    }
+
+    /**
+     * @param board the position before the move
+     * @param move  a packed move (see {@link Move}) of a piece on the board
+     * @return the material the mover comes out ahead by, in centipawns; negative when the
+     * move loses material, and for a quiet move 0 unless the piece can be taken for nothing
+     */
+    public static int evaluate(ChessBoard board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece mover = board.getPiece(from);
+        ChessPiece victim = board.getPiece(Move.captureSquare(move));
+        ChessPiece.PieceType promotion = Move.promotion(move);
+
+        int[] gain = SCRATCH.get().gain;
+        gain[0] = victim == null ? 0 : value(victim.getPieceType());
+        int onSquare = value(mover.getPieceType());
+        if (promotion != null) {
+            gain[0] += value(promotion) - value(ChessPiece.PieceType.PAWN);
+            onSquare = value(promotion);
+        }
+        long occupied = board.getOccupancy() & ~(1L << from);
+        if (Move.isEnPassant(move)) {
+            // the pawn taken en passant is off its square, which may open a line onto the end square
+            occupied &= ~(1L << Move.captureSquare(move));
+        }
+        ChessGame.TeamColor side = mover.getTeamColor().opponent();
+
+        int depth = 0;
+        while (depth < gain.length - 1) {
+            long attackers = board.getAttackers(to, side, occupied) & occupied;
+            if (attackers == 0) {
+                break;
+            }
+            ChessPiece.PieceType type = null;
+            long attacker = 0;
+            for (int i = 0; i < CHEAPEST_FIRST.length && attacker == 0; i++) {
+                type = CHEAPEST_FIRST[i];
+                attacker = attackers & board.getPieces(side, type);
+            }
+            attacker &= -attacker;
+            // a king may only take last, when nothing can take it back
+            if (type == ChessPiece.PieceType.KING
+                    && (board.getAttackers(to, side.opponent(), occupied ^ attacker) & occupied) != 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            onSquare = value(type);
+            occupied ^= attacker;
+            side = side.opponent();
+        }
+        // walk back up the sequence: each side only captures if that is better than stopping
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * Moves the captures among a list's moves from the given index on to the front of
+     * that range, best exchange first, keeping every other move in its original order
+     *
+     * @param board the position the moves are for
+     * @param moves the moves to reorder
+     * @param start index of the first move to reorder
+     */
+    public static void orderCaptures(ChessBoard board, MoveList moves, int start) {
+        // scores of the captures at the front of the range, in the same order
+        int[] scores = SCRATCH.get().scores;
+        int captureCount = 0;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!Move.isCapture(move)) {
+                continue;
+            }
+            int score = evaluate(board, move);
+            // the quiet moves passed so far move up one, staying in order
+            int j = start + captureCount;
+            for (int k = i; k > j; k--) {
+                moves.set(k, moves.get(k - 1));
+            }
+            // insertion sort, stable among equal scores
+            while (j > start && scores[j - start - 1] < score) {
+                moves.set(j, moves.get(j - 1));
+                scores[j - start] = scores[j - start - 1];
+                j--;
+            }
+            moves.set(j, move);
+            scores[j - start] = score;
+            captureCount++;
+        }
+    }
+
+    private static int value(ChessPiece.PieceType type) {
+        return VALUES[type.ordinal()];
+    }
+
+    private static final class Scratch {
+        // one entry per capture in an exchange; there are at most 32 pieces to take part
+        final int[] gain = new int[32];
+        final int[] scores = new int[MoveList.MAX_MOVES];
+    }
+}
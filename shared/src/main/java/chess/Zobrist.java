@@ -0,0 +1,84 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing of positions
+ * <p>
+ * A position's key is the xor of one key per piece on its square, one for the
+ * castling rights, one for the en passant file and one when black is to move.
+ * Each piece that moves only has to xor its old and new square keys, so keys
+ * are kept up to date as the board changes instead of being recomputed. The
+ * keys come from a fixed seed, so a position hashes the same in every run and
+ * keys can be stored.
+ */
+public final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    private static long seed = 0x2C5B_1D4E_83A7_F069L;
+
+    static {
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = nextRandom();
+            }
+        }
+        // rights combine by xor-ing a key per right, so clearing one right is a single xor
+        long[] rightKeys = {nextRandom(), nextRandom(), nextRandom(), nextRandom()};
+        for (int rights = 0; rights < 16; rights++) {
+            for (int bit = 0; bit < 4; bit++) {
+                if ((rights & (1 << bit)) != 0) {
+                    CASTLING[rights] ^= rightKeys[bit];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = nextRandom();
+        }
+        BLACK_TO_MOVE = nextRandom();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex piece slot, see {@link ChessPiece#index()}
+     * @param square     square index
+     * @return the key for that piece standing on that square
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    /**
+     * @return the key for a set of castling rights, see {@link ChessBoard#getCastlingRights()}
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @return the key for an en passant capture being possible on the given 1-based column
+     */
+    public static long enPassant(int column) {
+        return EN_PASSANT_FILE[column - 1];
+    }
+
+    /**
+     * @return the key xor-ed in when black is to move
+     */
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    // splitmix64
+    private static long nextRandom() {
+        seed += 0x9E3779B97F4A7C15L;
+        long z = seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,13 @@
+package chess.book;
+
+import chess.ChessMove;
+
+/**
+ * A move stored in an opening book
+ *
+ * @param move   the move
+ * @param weight how strongly the book recommends it, relative to the other moves for the
+ *               same position; 0 means it is recorded but should not be played
+ */
+public record BookMove(ChessMove move, int weight) {
+}
@@ -0,0 +1,234 @@
+package chess.book;
+
+import chess.Attacks;
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Moves for known positions, read from a book file in the Polyglot layout
+ * <p>
+ * The file is a run of 16-byte big-endian entries: the position's key (8 bytes),
+ * the move (2 bytes), its weight (2 bytes) and 4 bytes of learning data that are
+ * ignored, sorted by key. The move keeps the end square in bits 0-5, the start
+ * square in bits 6-11 and the promotion piece in bits 12-14 (knight 1 to queen 4),
+ * with squares numbered as in {@link Bitboards}. Castling is written as the king
+ * taking its own rook, e1h1 rather than e1g1. Positions are keyed by
+ * {@link #polyglotKey}, so books made by other Polyglot tools can be read and the
+ * files {@link OpeningBookWriter} makes can be used elsewhere.
+ * <p>
+ * The whole file is memory-mapped and found by binary search, so a lookup touches
+ * a handful of pages and nothing is read onto the heap. Lookups are thread-safe.
+ */
+public final class OpeningBook implements AutoCloseable {
+
+    static final int ENTRY_SIZE = 16;
+    // indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    static final int[] PROMOTION_CODES = {0, 4, 2, 1, 3, 0};
+    // Polyglot piece kind for each PieceType ordinal, black's; white's is one more
+    private static final int[] POLYGLOT_KINDS = {10, 8, 4, 2, 6, 0};
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            null, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN
+    };
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+
+    /**
+     * @param file the book to open
+     * @throws IOException if the file can't be read, or isn't a whole number of entries
+     */
+    public OpeningBook(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            entryCount = (int) (size / ENTRY_SIZE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return how many entries the book holds
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * @param game the position to look up
+     * @return the book's legal moves for the position, highest weight first; empty if the
+     * position isn't in the book
+     */
+    public List<BookMove> lookup(ChessGame game) {
+        long key = polyglotKey(game);
+        List<BookMove> moves = new ArrayList<>();
+        MoveList legal = new MoveList();
+        for (int i = firstEntry(key); i < entryCount && keyAt(i) == key; i++) {
+            int offset = i * ENTRY_SIZE;
+            int move = legalMove(game, entries.getShort(offset + 8) & 0xFFFF, legal);
+            // a stray key collision, or a move this reader can't play, is skipped
+            if (move != Move.NONE) {
+                moves.add(new BookMove(Move.toChessMove(move), entries.getShort(offset + 10) & 0xFFFF));
+            }
+        }
+        moves.sort(Comparator.comparingInt(BookMove::weight).reversed());
+        return moves;
+    }
+
+    /**
+     * Picks one of the book's moves for a position, each with a chance in proportion to its weight
+     *
+     * @param game   the position to look up
+     * @param random source of the choice
+     * @return the chosen move, or null if the book has no move with a weight for the position
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = lookup(game);
+        int total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int roll = random.nextInt(total);
+        for (BookMove move : moves) {
+            roll -= move.weight();
+            if (roll < 0) {
+                return move.move();
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    /**
+     * Hashes a position the way Polyglot books are keyed: a value from its fixed table
+     * for each piece on its square, for each usable castling right, for the en passant file
+     * when a pawn of the side to move can actually capture there, and for white to move
+     *
+     * @param game the position
+     * @return the position's key in a book
+     */
+    public static long polyglotKey(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        long key = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                int base = 64 * (POLYGLOT_KINDS[type.ordinal()] + (color == ChessGame.TeamColor.WHITE ? 1 : 0));
+                for (long pieces = board.getPieces(color, type); pieces != 0; pieces &= pieces - 1) {
+                    key ^= PolyglotRandom.VALUES[base + Long.numberOfTrailingZeros(pieces)];
+                }
+            }
+        }
+        // the rights flags are in Polyglot's order, white kingside first
+        int rights = board.getUsableCastlingRights();
+        for (int right = 0; right < 4; right++) {
+            if ((rights & (1 << right)) != 0) {
+                key ^= PolyglotRandom.VALUES[PolyglotRandom.CASTLING + right];
+            }
+        }
+        int enPassant = board.getEnPassantSquare();
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        if (enPassant >= 0 && (Attacks.pawnAttacks(turn.opponent(), enPassant)
+                & board.getPieces(turn, ChessPiece.PieceType.PAWN)) != 0) {
+            key ^= PolyglotRandom.VALUES[PolyglotRandom.EN_PASSANT + Bitboards.column(enPassant) - 1];
+        }
+        if (turn == ChessGame.TeamColor.WHITE) {
+            key ^= PolyglotRandom.VALUES[PolyglotRandom.WHITE_TO_MOVE];
+        }
+        return key;
+    }
+
+    /**
+     * Closes the book file
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // index of the first entry with a key not below the given one, comparing keys as unsigned
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    // the packed move (see Move) for a book move, or Move.NONE if it has an unknown promotion
+    static int toMove(int bookMove) {
+        int to = bookMove & 63;
+        int from = (bookMove >>> 6) & 63;
+        int promotion = (bookMove >>> 12) & 7;
+        if (promotion >= PROMOTIONS.length) {
+            return Move.NONE;
+        }
+        return Move.of(from, to, PROMOTIONS[promotion], 0);
+    }
+
+    static int toBookMove(int move) {
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        int promotionCode = promotion == null ? 0 : PROMOTION_CODES[promotion.ordinal()];
+        int to = Move.to(move);
+        if (Move.isCastle(move)) {
+            to = to > Move.from(move) ? to + 1 : to - 2;
+        }
+        return to | (Move.from(move) << 6) | (promotionCode << 12);
+    }
+
+    // the legal move, with its flags, that a book move stands for, or Move.NONE
+    private static int legalMove(ChessGame game, int bookMove, MoveList legal) {
+        int move = toMove(bookMove);
+        if (move == Move.NONE) {
+            return Move.NONE;
+        }
+        ChessBoard board = game.getBoard();
+        ChessPiece piece = board.getPiece(Move.from(move));
+        if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+            return Move.NONE;
+        }
+        legal.clear();
+        MoveGenerator.generateLegal(board, Move.from(move), legal);
+        for (int i = 0; i < legal.size(); i++) {
+            if (toBookMove(legal.get(i)) == bookMove) {
+                return legal.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+}
@@ -0,0 +1,83 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects moves played from positions and writes them out as an {@link OpeningBook} file
+ * <p>
+ * Adding the same move from the same position again adds to its weight, so feeding
+ * in a collection of games weights each move by how often it was played. Weights
+ * are capped at the format's limit of 65535.
+ */
+public final class OpeningBookWriter {
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    // position key to book move to weight, in the order moves were first added
+    private final Map<Long, Map<Integer, Integer>> positions = new HashMap<>();
+
+    /**
+     * @param game   the position the move is played from
+     * @param move   the move played
+     * @param weight how much to add to the move's weight
+     */
+    public void add(ChessGame game, ChessMove move, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight: " + weight);
+        }
+        int packed = Move.of(move);
+        ChessPiece piece = game.getBoard().getPiece(move.getStartPosition());
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING
+                && Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn()) == 2) {
+            packed |= Move.CASTLE;
+        }
+        positions.computeIfAbsent(OpeningBook.polyglotKey(game), key -> new LinkedHashMap<>())
+                .merge(OpeningBook.toBookMove(packed), Math.min(weight, MAX_WEIGHT),
+                        (a, b) -> Math.min(a + b, MAX_WEIGHT));
+    }
+
+    /**
+     * @return how many entries the book would have
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Integer, Integer> moves : positions.values()) {
+            size += moves.size();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the book, sorted by key and then by weight, highest first
+     */
+    public void write(Path file) throws IOException {
+        List<Long> keys = new ArrayList<>(positions.keySet());
+        keys.sort(Long::compareUnsigned);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (long key : keys) {
+                List<Map.Entry<Integer, Integer>> moves = new ArrayList<>(positions.get(key).entrySet());
+                moves.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed());
+                for (Map.Entry<Integer, Integer> move : moves) {
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    out.writeShort(move.getValue());
+                    out.writeInt(0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package chess.endgame;
+
+/**
+ * The exact result of an endgame position with perfect play
+ *
+ * @param outcome  how the game ends for the side to move
+ * @param distance plies until mate with the fastest win and slowest loss, 0 for a draw
+ *                 and for a side to move that is already mated
+ */
+public record EndgameResult(Outcome outcome, int distance) {
+
+    public static final EndgameResult DRAW = new EndgameResult(Outcome.DRAW, 0);
+
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+}
@@ -0,0 +1,212 @@
+package chess.endgame;
+
+import chess.Attacks;
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Builds the {@link EndgameTables} files by retrograde analysis
+ * <p>
+ * Every legal placement is first checked for mate and stalemate. Then pass n
+ * marks a position won in n plies if some move reaches a position lost in n - 1,
+ * and lost in n plies if every move reaches a position the opponent has already
+ * been found to win. Whatever is never marked is a draw. Pawn promotions lead
+ * into the queen and rook tables, so those are built first. Run {@code main}
+ * with the directory to write to.
+ */
+public final class EndgameTableGenerator {
+
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+
+    private final ChessPiece.PieceType type;
+    private final Map<ChessPiece.PieceType, byte[]> promotions;
+    private final byte[] values = new byte[EndgameTables.TABLE_SIZE];
+    private final boolean[] resolved = new boolean[EndgameTables.TABLE_SIZE];
+    private final ChessBoard board = new ChessBoard();
+    private final MoveList moves = new MoveList();
+    private final ChessPiece whiteKing = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+    private final ChessPiece blackKing = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+    private final ChessPiece extra;
+    private final int[] placed = new int[3];
+
+    private EndgameTableGenerator(ChessPiece.PieceType type, Map<ChessPiece.PieceType, byte[]> promotions) {
+        this.type = type;
+        this.promotions = promotions;
+        extra = ChessPiece.of(ChessGame.TeamColor.WHITE, type);
+        // a king on e1 and a rook on h1 here are not a castling position
+        board.setCastlingRights(0);
+    }
+
+    /**
+     * Writes every table into a directory, creating it if needed
+     */
+    public static void generateAll(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Map<ChessPiece.PieceType, byte[]> finished = new EnumMap<>(ChessPiece.PieceType.class);
+        for (ChessPiece.PieceType type : EndgameTables.TABLE_TYPES) {
+            byte[] table = generate(type, finished);
+            finished.put(type, table);
+            write(directory.resolve(EndgameTables.fileName(type)), table);
+        }
+    }
+
+    /**
+     * @param type       the piece the stronger side has besides its king
+     * @param promotions finished tables for the pieces a pawn can promote to; any missing
+     *                   piece is treated as a draw
+     * @return the table, in the file layout
+     */
+    static byte[] generate(ChessPiece.PieceType type, Map<ChessPiece.PieceType, byte[]> promotions) {
+        return new EndgameTableGenerator(type, promotions).generate();
+    }
+
+    private byte[] generate() {
+        int[] pending = new int[EndgameTables.TABLE_SIZE];
+        int pendingCount = 0;
+        for (int index = 0; index < EndgameTables.TABLE_SIZE; index++) {
+            if (!setUp(index)) {
+                // never reached from a legal position
+                resolved[index] = true;
+                continue;
+            }
+            ChessGame.TeamColor toMove = COLORS[index >>> 18];
+            moves.clear();
+            MoveGenerator.generateLegal(board, toMove, moves);
+            if (moves.isEmpty()) {
+                boolean inCheck = board.isSquareAttacked(board.getKingSquare(toMove), toMove.opponent());
+                values[index] = inCheck ? EndgameTables.loss(0) : 0;
+                resolved[index] = true;
+            } else {
+                pending[pendingCount++] = index;
+            }
+        }
+
+        for (int ply = 1; ; ply++) {
+            int kept = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                int index = pending[i];
+                setUp(index);
+                byte value = resolve(COLORS[index >>> 18], ply);
+                if (value != 0) {
+                    values[index] = value;
+                    resolved[index] = true;
+                } else {
+                    pending[kept++] = index;
+                }
+            }
+            if (kept == pendingCount) {
+                // nothing new this pass, so nothing new can follow; the rest are draws
+                return values;
+            }
+            pendingCount = kept;
+        }
+    }
+
+    // the position's value if this pass settles it, otherwise 0
+    private byte resolve(ChessGame.TeamColor toMove, int ply) {
+        moves.clear();
+        MoveGenerator.generateLegal(board, toMove, moves);
+        boolean everyMoveLoses = true;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            int reply = successor(toMove.opponent(), ply);
+            board.unmakeMove();
+            if (reply == Integer.MIN_VALUE) {
+                everyMoveLoses = false;
+            } else if (reply < 0) {
+                // the opponent is mated in ply - 1 after this move; later passes can't find faster
+                return EndgameTables.win(ply);
+            } else if (reply == 0) {
+                everyMoveLoses = false;
+            }
+        }
+        return everyMoveLoses ? EndgameTables.loss(ply) : 0;
+    }
+
+    // value of the position after a move, for the side now to move, or MIN_VALUE if not
+    // settled before this pass; results further than ply - 1 away don't count yet
+    private int successor(ChessGame.TeamColor toMove, int ply) {
+        int whiteKingSquare = board.getKingSquare(ChessGame.TeamColor.WHITE);
+        int blackKingSquare = board.getKingSquare(ChessGame.TeamColor.BLACK);
+        long pieces = board.getOccupancy(ChessGame.TeamColor.WHITE) & ~(1L << whiteKingSquare);
+        if (pieces == 0) {
+            // the extra piece was taken, leaving king against king
+            return 0;
+        }
+        int square = Long.numberOfTrailingZeros(pieces);
+        int index = EndgameTables.index(toMove, whiteKingSquare, blackKingSquare, square);
+        ChessPiece.PieceType now = board.getPiece(square).getPieceType();
+        byte value;
+        if (now == type) {
+            if (!resolved[index]) {
+                return Integer.MIN_VALUE;
+            }
+            value = values[index];
+        } else {
+            byte[] table = promotions.get(now);
+            value = table == null ? 0 : table[index];
+        }
+        if (value != 0 && EndgameTables.distance(value) > ply - 1) {
+            return Integer.MIN_VALUE;
+        }
+        return value;
+    }
+
+    // puts the entry's pieces on the board, returning false if the placement can't happen in a game
+    private boolean setUp(int index) {
+        for (int square : placed) {
+            board.addPiece(Bitboards.position(square), null);
+        }
+        int whiteKingSquare = (index >>> 12) & 63;
+        int blackKingSquare = (index >>> 6) & 63;
+        int square = index & 63;
+        if (whiteKingSquare == blackKingSquare || square == whiteKingSquare || square == blackKingSquare
+                || (Attacks.kingAttacks(whiteKingSquare) & (1L << blackKingSquare)) != 0) {
+            return false;
+        }
+        if (type == ChessPiece.PieceType.PAWN && (Bitboards.row(square) == 1 || Bitboards.row(square) == 8)) {
+            return false;
+        }
+        placed[0] = whiteKingSquare;
+        placed[1] = blackKingSquare;
+        placed[2] = square;
+        board.addPiece(Bitboards.position(whiteKingSquare), whiteKing);
+        board.addPiece(Bitboards.position(blackKingSquare), blackKing);
+        board.addPiece(Bitboards.position(square), extra);
+        // the side that just moved can't have left its king in check
+        ChessGame.TeamColor toMove = COLORS[index >>> 18];
+        return !board.isSquareAttacked(board.getKingSquare(toMove.opponent()), toMove);
+    }
+
+    static void write(Path file, byte[] table) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(EndgameTables.HEADER_SIZE);
+        header.put(EndgameTables.MAGIC).putInt(table.length);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(header.array());
+            out.write(table);
+        }
+    }
+
+    /**
+     * Writes the tables into the directory given as the first argument, or ./endgame-tables
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "endgame-tables");
+        long start = System.nanoTime();
+        generateAll(directory);
+        System.out.printf("wrote %d tables to %s in %.1fs%n", EndgameTables.TABLE_TYPES.length, directory,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
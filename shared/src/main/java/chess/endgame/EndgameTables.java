@@ -0,0 +1,224 @@
+package chess.endgame;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exact results for endgames with three pieces, read from table files in a local directory
+ * <p>
+ * Each table covers a king and one other piece against a bare king, and holds a
+ * byte for every placement of the three pieces and side to move: 0 for a draw,
+ * n for a win with mate in n plies, and -(n + 1) for a loss with mate in n plies.
+ * The tables are written with the stronger side as white; positions where black
+ * has the extra piece are looked up with the board flipped. King and bishop or
+ * knight against king needs no table, as it is always a draw. The files are this
+ * program's own uncompressed layout, made by {@link EndgameTableGenerator}; files
+ * in a published tablebase format such as Syzygy can't be read.
+ * <p>
+ * Files are memory-mapped a block at a time, and only the most recently used
+ * blocks stay mapped, so probing costs neither heap nor more address space than
+ * the cache allows. Probing is thread-safe.
+ */
+public final class EndgameTables implements AutoCloseable {
+
+    public static final int DEFAULT_CACHED_BLOCKS = 64;
+    /** Tables exist for king and one of these against king */
+    public static final ChessPiece.PieceType[] TABLE_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.PAWN
+    };
+
+    static final int TABLE_SIZE = 2 * 64 * 64 * 64;
+    static final int HEADER_SIZE = 16;
+    static final byte[] MAGIC = "CS240EG1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final Map<ChessPiece.PieceType, FileChannel> channels = new EnumMap<>(ChessPiece.PieceType.class);
+    private final Map<Long, MappedByteBuffer> blocks;
+
+    /**
+     * Opens the tables in a directory, keeping {@link #DEFAULT_CACHED_BLOCKS} blocks mapped
+     *
+     * @param directory where the table files are; missing files just mean those endgames can't be probed
+     */
+    public EndgameTables(Path directory) {
+        this(directory, DEFAULT_CACHED_BLOCKS);
+    }
+
+    /**
+     * @param directory    where the table files are
+     * @param cachedBlocks how many 64 KB blocks to keep mapped at once
+     */
+    public EndgameTables(Path directory, int cachedBlocks) {
+        if (cachedBlocks < 1) {
+            throw new IllegalArgumentException("Need at least one cached block: " + cachedBlocks);
+        }
+        this.directory = directory;
+        blocks = new LinkedHashMap<>(cachedBlocks, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MappedByteBuffer> eldest) {
+                // dropping the last reference lets the collector unmap the block
+                return size() > cachedBlocks;
+            }
+        };
+    }
+
+    /**
+     * @param game the position to look up, with its side to move
+     * @return the exact result, or null if the position isn't covered by the tables
+     */
+    public EndgameResult probe(ChessGame game) {
+        return probe(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * @param board  the position to look up
+     * @param toMove the side to move
+     * @return the exact result for the side to move, or null if the position has too many
+     * pieces, has a king and rook that can still castle, or its table is missing
+     * @throws UncheckedIOException if a table file can't be read
+     */
+    public synchronized EndgameResult probe(ChessBoard board, ChessGame.TeamColor toMove) {
+        int whiteKing = board.getKingSquare(ChessGame.TeamColor.WHITE);
+        int blackKing = board.getKingSquare(ChessGame.TeamColor.BLACK);
+        long occupied = board.getOccupancy();
+        // the tables are built without castling, so a king and rook that may still castle aren't covered
+        if (whiteKing < 0 || blackKing < 0 || Long.bitCount(occupied) > 3 || board.getUsableCastlingRights() != 0) {
+            return null;
+        }
+        long others = occupied & ~(1L << whiteKing) & ~(1L << blackKing);
+        if (others == 0) {
+            return EndgameResult.DRAW;
+        }
+        int square = Long.numberOfTrailingZeros(others);
+        ChessPiece piece = board.getPiece(square);
+        ChessPiece.PieceType type = piece.getPieceType();
+        if (type == ChessPiece.PieceType.KING) {
+            // a second king of one color, which no table covers
+            return null;
+        }
+        if (type == ChessPiece.PieceType.BISHOP || type == ChessPiece.PieceType.KNIGHT) {
+            return EndgameResult.DRAW;
+        }
+        int index;
+        if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+            index = index(toMove, whiteKing, blackKing, square);
+        } else {
+            // flip the board top to bottom and swap the colors, so the extra piece is white
+            index = index(toMove.opponent(), blackKing ^ 56, whiteKing ^ 56, square ^ 56);
+        }
+        FileChannel channel = channel(type);
+        return channel == null ? null : decode(read(type, channel, index));
+    }
+
+    /**
+     * Closes the table files
+     */
+    @Override
+    public synchronized void close() {
+        blocks.clear();
+        for (FileChannel channel : channels.values()) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        channels.clear();
+    }
+
+    /**
+     * @return the file name of the table for king and the given piece against king, e.g. KQvK.egt
+     */
+    public static String fileName(ChessPiece.PieceType type) {
+        String letter = type == ChessPiece.PieceType.KNIGHT ? "N" : type.name().substring(0, 1);
+        return "K" + letter + "vK.egt";
+    }
+
+    // position of an entry in a table, with the extra piece belonging to white
+    static int index(ChessGame.TeamColor toMove, int whiteKing, int blackKing, int piece) {
+        return ((toMove.ordinal() * 64 + whiteKing) * 64 + blackKing) * 64 + piece;
+    }
+
+    static byte win(int distance) {
+        return (byte) distance;
+    }
+
+    static byte loss(int distance) {
+        return (byte) -(distance + 1);
+    }
+
+    static int distance(byte value) {
+        return value > 0 ? value : value < 0 ? -value - 1 : 0;
+    }
+
+    static EndgameResult decode(byte value) {
+        if (value == 0) {
+            return EndgameResult.DRAW;
+        }
+        return new EndgameResult(value > 0 ? EndgameResult.Outcome.WIN : EndgameResult.Outcome.LOSS,
+                distance(value));
+    }
+
+    // opens a table file the first time it is needed, remembering a missing file as null
+    private FileChannel channel(ChessPiece.PieceType type) {
+        if (channels.containsKey(type)) {
+            return channels.get(type);
+        }
+        Path file = directory.resolve(fileName(type));
+        FileChannel channel = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                byte[] magic = Arrays.copyOf(header.array(), MAGIC.length);
+                if (!Arrays.equals(magic, MAGIC) || header.getInt(MAGIC.length) != TABLE_SIZE
+                        || channel.size() != HEADER_SIZE + TABLE_SIZE) {
+                    channel.close();
+                    throw new IOException("Not an endgame table file: " + file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        channels.put(type, channel);
+        return channel;
+    }
+
+    private byte read(ChessPiece.PieceType type, FileChannel channel, int index) {
+        long position = HEADER_SIZE + (long) index;
+        long block = position / BLOCK_SIZE;
+        Long key = ((long) type.ordinal() << 32) | block;
+        MappedByteBuffer buffer = blocks.get(key);
+        if (buffer == null) {
+            try {
+                long start = block * BLOCK_SIZE;
+                long length = Math.min(BLOCK_SIZE, channel.size() - start);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            blocks.put(key, buffer);
+        }
+        return buffer.get((int) (position - block * BLOCK_SIZE));
+    }
+}
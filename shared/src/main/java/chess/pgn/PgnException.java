@@ -0,0 +1,28 @@
+package chess.pgn;
+
+import java.io.IOException;
+
+/**
+ * Indicates a game in a PGN file could not be read
+ * <p>
+ * The reader has already skipped the rest of the bad game when this is thrown,
+ * so reading can carry on with the next one.
+ */
+public class PgnException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+
+    public PgnException(String message, int line) {
+        super(message + " (line " + line + ")");
+        this.line = line;
+    }
+
+    /**
+     * @return the line of the file the problem was found on, counting from 1
+     */
+    public int getLine() {
+        return line;
+    }
+}
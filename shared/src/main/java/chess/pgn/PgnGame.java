@@ -0,0 +1,38 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game from a PGN file: its tags, where it started and the moves played
+ *
+ * @param tags   the tag pairs, such as Event, White and Black, in file order
+ * @param start  the starting position, from the FEN tag if there is one
+ * @param moves  the moves of the main line, in order
+ * @param result 1-0, 0-1, 1/2-1/2, or {@link #UNKNOWN_RESULT}
+ */
+public record PgnGame(Map<String, String> tags, ChessGame start, List<ChessMove> moves, String result) {
+
+    /**
+     * The result of a game still going on, or whose result is not known
+     */
+    public static final String UNKNOWN_RESULT = "*";
+
+    /**
+     * Plays the moves out from the starting position
+     *
+     * @return a new game in the final position
+     * @throws InvalidMoveException if one of the moves is not legal
+     */
+    public ChessGame play() throws InvalidMoveException {
+        ChessGame game = new ChessGame(start);
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,390 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.San;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads games one at a time from a stream of Portable Game Notation
+ * <p>
+ * The input goes through a fixed buffer and only the game being read is held in
+ * memory, so files of any size can be read. Each move is checked against the
+ * legal move generator as it is read, on a board of the reader's own, without
+ * going through ChessGame. Comments, numeric annotations and variations are
+ * skipped; only the main line is kept. Tag values are read as UTF-8.
+ * <p>
+ * A PgnReader is not safe to share between threads.
+ */
+public final class PgnReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_TOKEN = 1 << 16;
+    private static final int EOF = -1;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+    // the byte before the buffer's first, for telling whether a line starts there
+    private int lastByte = '\n';
+
+    private byte[] token = new byte[256];
+    private int tokenLength;
+    private final MoveList legal = new MoveList();
+    private final TokenText text = new TokenText();
+
+    /**
+     * @param in the PGN to read, which the reader closes when it is closed
+     */
+    public PgnReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @param file a PGN file
+     * @return a reader for the file
+     */
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(Files.newInputStream(file));
+    }
+
+    /**
+     * Reads every remaining game, handing each to a callback as soon as it is read
+     *
+     * @param handler called with each game in file order
+     * @return how many games were read
+     * @throws PgnException if a game can't be read; the games before it have been handled
+     */
+    public long readAll(Consumer<PgnGame> handler) throws IOException {
+        long count = 0;
+        for (PgnGame game = readGame(); game != null; game = readGame()) {
+            handler.accept(game);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the next game, or null at the end of the input
+     * @throws PgnException if the next game can't be read; it is skipped, so the
+     *                      following call reads the game after it
+     */
+    public PgnGame readGame() throws IOException {
+        skipWhitespace();
+        if (peek() == EOF) {
+            return null;
+        }
+        try {
+            return readGameAt();
+        } catch (PgnException e) {
+            skipToNextGame();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private PgnGame readGameAt() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        while (peek() == '[') {
+            readTag(tags);
+            skipWhitespace();
+        }
+        ChessGame start = new ChessGame();
+        String fen = tags.get("FEN");
+        if (fen != null) {
+            try {
+                start = ChessGame.fromFen(fen);
+            } catch (IllegalArgumentException e) {
+                throw new PgnException(e.getMessage(), line);
+            }
+        }
+        ChessBoard board = new ChessBoard(start.getBoard());
+        ChessGame.TeamColor toMove = start.getTeamTurn();
+        List<ChessMove> moves = new ArrayList<>();
+        String result = tags.getOrDefault("Result", PgnGame.UNKNOWN_RESULT);
+
+        while (true) {
+            skipWhitespace();
+            int c = peek();
+            if (c == EOF || c == '[') {
+                // the input ended, or the next game's tags began, without a result
+                break;
+            } else if (c == '{') {
+                skipComment();
+            } else if (c == ';') {
+                skipLine();
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == ')' || c == '}' || c == ']') {
+                throw new PgnException("Unmatched '" + (char) c + "'", line);
+            } else {
+                readToken();
+                if (isResult()) {
+                    result = new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+                    break;
+                }
+                int move = readMove(board, toMove);
+                if (move != Move.NONE) {
+                    moves.add(Move.toChessMove(move));
+                    board.makeMove(move);
+                    // nothing is taken back, so keep the undo stack from filling on long games
+                    board.clearUndo();
+                    toMove = toMove.opponent();
+                }
+            }
+        }
+        return new PgnGame(tags, start, moves, result);
+    }
+
+    // [Name "value"], with \" and \\ escaped inside the value
+    private void readTag(Map<String, String> tags) throws IOException {
+        read();
+        skipWhitespace();
+        tokenLength = 0;
+        for (int c = peek(); c != EOF && c != '"' && c != ']' && !isWhitespace(c); c = peek()) {
+            append(read());
+        }
+        if (tokenLength == 0) {
+            throw new PgnException("Tag without a name", line);
+        }
+        String name = new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+        skipWhitespace();
+        if (read() != '"') {
+            throw new PgnException("Tag " + name + " has no quoted value", line);
+        }
+        tokenLength = 0;
+        for (int c = read(); c != '"'; c = read()) {
+            if (c == EOF || c == '\n') {
+                throw new PgnException("Unterminated value for tag " + name, line);
+            }
+            append(c == '\\' ? read() : c);
+        }
+        tags.put(name, new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+        skipWhitespace();
+        if (read() != ']') {
+            throw new PgnException("Tag " + name + " is not closed with ']'", line);
+        }
+    }
+
+    // a move number, a numeric annotation, a move, or a result
+    private void readToken() throws IOException {
+        tokenLength = 0;
+        for (int c = peek(); c != EOF && !isWhitespace(c) && !isDelimiter(c); c = peek()) {
+            append(read());
+        }
+    }
+
+    private boolean isResult() {
+        return tokenIs("1-0") || tokenIs("0-1") || tokenIs("1/2-1/2") || tokenIs("*");
+    }
+
+    private boolean tokenIs(String text) {
+        if (tokenLength != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (token[i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the token's move, found among the legal moves, or Move.NONE if the token holds no move
+    private int readMove(ChessBoard board, ChessGame.TeamColor toMove) throws PgnException {
+        int start = 0;
+        if (token[0] == '$') {
+            return Move.NONE;
+        }
+        // a move number such as "12." or "12...", possibly run into the move
+        while (start < tokenLength && token[start] >= '0' && token[start] <= '9') {
+            start++;
+        }
+        if (start < tokenLength && token[start] == '.') {
+            while (start < tokenLength && token[start] == '.') {
+                start++;
+            }
+        } else {
+            start = 0;
+        }
+        int end = tokenLength;
+        while (end > start && isSuffix(token[end - 1])) {
+            end--;
+        }
+        if (end == start) {
+            return Move.NONE;
+        }
+        legal.clear();
+        MoveGenerator.generateLegal(board, toMove, legal);
+        text.start = start;
+        try {
+            return San.parse(board, legal, text);
+        } catch (IllegalArgumentException e) {
+            throw new PgnException(e.getMessage(), line);
+        }
+    }
+
+    // check, mate and move quality marks, which say nothing about the move itself
+    private static boolean isSuffix(byte c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isDelimiter(int c) {
+        return c == '{' || c == '}' || c == '(' || c == ')' || c == ';' || c == '[' || c == ']';
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    private void append(int c) throws PgnException {
+        if (tokenLength == token.length) {
+            if (token.length >= MAX_TOKEN) {
+                throw new PgnException("Token longer than " + MAX_TOKEN + " bytes", line);
+            }
+            token = Arrays.copyOf(token, token.length * 2);
+        }
+        token[tokenLength++] = (byte) c;
+    }
+
+    private void skipComment() throws IOException {
+        read();
+        for (int c = read(); c != '}'; c = read()) {
+            if (c == EOF) {
+                throw new PgnException("Unterminated comment", line);
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        for (int c = read(); c != '\n' && c != EOF; c = read()) {
+            // nothing to keep
+        }
+    }
+
+    // a variation, and any variations and comments inside it
+    private void skipVariation() throws IOException {
+        read();
+        int depth = 1;
+        while (depth > 0) {
+            int c = peek();
+            if (c == EOF) {
+                throw new PgnException("Unterminated variation", line);
+            } else if (c == '{') {
+                skipComment();
+            } else if (c == ';') {
+                skipLine();
+            } else {
+                read();
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                }
+            }
+        }
+    }
+
+    // after a bad game: everything up to the next line that starts with a tag
+    private void skipToNextGame() throws IOException {
+        boolean lineStart = false;
+        for (int c = peek(); c != EOF && !(lineStart && c == '['); c = peek()) {
+            read();
+            lineStart = c == '\n';
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        for (int c = peek(); c != EOF; c = peek()) {
+            if (c == '%' && isLineStart()) {
+                // an escaped line, meant for other programs
+                skipLine();
+            } else if (isWhitespace(c)) {
+                read();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private boolean isLineStart() {
+        return position == 0 ? lastByte == '\n' : buffer[position - 1] == '\n';
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        int c = buffer[position++] & 0xFF;
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        if (limit > 0) {
+            lastByte = buffer[limit - 1];
+        }
+        int read = in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    // the current token from a given start, read as text without copying it
+    private final class TokenText implements CharSequence {
+        private int start;
+
+        @Override
+        public int length() {
+            return tokenLength - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) token[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return new String(token, start, length(), StandardCharsets.US_ASCII);
+        }
+    }
+}
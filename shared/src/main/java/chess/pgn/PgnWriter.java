@@ -0,0 +1,157 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.San;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as Portable Game Notation, in the export format that {@link PgnReader}
+ * and other programs read
+ * <p>
+ * The seven standard tags come first, in their usual order and filled with "?" when
+ * a game doesn't have them, followed by the game's other tags. A game that doesn't
+ * start from the usual position gets SetUp and FEN tags. Moves are written in
+ * standard algebraic notation with lines kept under 80 characters.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+
+    private static final List<String> SEVEN_TAG_ROSTER = List.of(
+            "Event", "Site", "Date", "Round", "White", "Black", "Result"
+    );
+    private static final int LINE_LENGTH = 79;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 1);
+    private final MoveList legal = new MoveList();
+
+    /**
+     * @param out where to write the games, as UTF-8
+     */
+    public PgnWriter(OutputStream out) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param out where to write the games
+     */
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes a game and the blank line after it
+     *
+     * @param game the game to write
+     * @throws IllegalArgumentException if one of the game's moves is not legal
+     */
+    public void write(PgnGame game) throws IOException {
+        Map<String, String> tags = game.tags();
+        for (String name : SEVEN_TAG_ROSTER) {
+            writeTag(name, name.equals("Result") ? game.result() : tags.getOrDefault(name, "?"));
+        }
+        String fen = game.start().toFen();
+        boolean setUp = !fen.equals(Fen.START);
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            String name = tag.getKey();
+            if (!SEVEN_TAG_ROSTER.contains(name) && !(setUp && (name.equals("SetUp") || name.equals("FEN")))) {
+                writeTag(name, tag.getValue());
+            }
+        }
+        if (setUp) {
+            writeTag("SetUp", "1");
+            writeTag("FEN", fen);
+        }
+        out.write('\n');
+
+        ChessBoard board = new ChessBoard(game.start().getBoard());
+        ChessGame.TeamColor toMove = game.start().getTeamTurn();
+        int moveNumber = game.start().getFullmoveNumber();
+        line.setLength(0);
+        for (int i = 0; i < game.moves().size(); i++) {
+            if (toMove == ChessGame.TeamColor.WHITE) {
+                writeToken(moveNumber + ".");
+            } else if (i == 0) {
+                writeToken(moveNumber + "...");
+            }
+            writeToken(play(board, toMove, game.moves().get(i)));
+            if (toMove == ChessGame.TeamColor.BLACK) {
+                moveNumber++;
+            }
+            toMove = toMove.opponent();
+        }
+        writeToken(game.result());
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Closes the underlying writer
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        out.write(value.replace("\\", "\\\\").replace("\"", "\\\""));
+        out.write("\"]\n");
+    }
+
+    // adds a token to the current line, starting a new line when it would get too long
+    private void writeToken(String token) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+
+    // plays a move on the board and returns its standard algebraic notation
+    private String play(ChessBoard board, ChessGame.TeamColor toMove, ChessMove chessMove) {
+        legal.clear();
+        MoveGenerator.generateLegal(board, toMove, legal);
+        int key = Move.key(Move.of(chessMove));
+        int move = Move.NONE;
+        for (int i = 0; i < legal.size() && move == Move.NONE; i++) {
+            if (Move.key(legal.get(i)) == key) {
+                move = legal.get(i);
+            }
+        }
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException("Not a legal move: " + chessMove);
+        }
+
+        String san = San.format(board, legal, move);
+        board.makeMove(move);
+        board.clearUndo();
+        return san;
+    }
+}
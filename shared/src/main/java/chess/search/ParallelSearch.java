@@ -0,0 +1,130 @@
+package chess.search;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A best-move search run on several threads at once, Lazy SMP style
+ * <p>
+ * Every thread searches the same position with its own {@link Search}, but all
+ * of them read and fill one shared {@link TranspositionTable}. The helpers never
+ * report anything themselves; what they add is table entries, so the main
+ * thread finds cutoffs and good first moves it would otherwise have had to
+ * search for. Half of the helpers start one iteration deeper than the main
+ * thread so they do not all walk the tree in step. The main thread's result is
+ * the one returned, and once it is done the helpers are stopped.
+ * <p>
+ * The helper threads live as long as the ParallelSearch, so close it when done.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final Search main;
+    private final List<Search> helpers = new ArrayList<>();
+    private final ExecutorService pool;
+
+    /**
+     * @param threads how many threads to search with, main thread included
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable());
+    }
+
+    /**
+     * @param threads how many threads to search with, main thread included
+     * @param table   transposition table shared by all the threads
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread: " + threads);
+        }
+        this.table = table;
+        main = new Search(table);
+        for (int i = 1; i < threads; i++) {
+            helpers.add(new Search(table));
+        }
+        pool = helpers.isEmpty() ? null : Executors.newFixedThreadPool(helpers.size(), runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return how many threads search, main thread included
+     */
+    public int threads() {
+        return helpers.size() + 1;
+    }
+
+    /**
+     * Searches the game's position for the side to move, like {@link Search#bestMove},
+     * on every thread. The game itself is not changed.
+     *
+     * @param game   the position to search
+     * @param limits when to stop; only the main thread checks them
+     * @return the main thread's result, with the node count of all threads together
+     */
+    public SearchResult bestMove(ChessGame game, SearchLimits limits) {
+        // one generation for every thread, bumped before any of them writes to the table
+        main.clearStop();
+        table.newSearch();
+        List<Future<SearchResult>> running = new ArrayList<>();
+        SearchLimits helperLimits = SearchLimits.depth(limits.maxDepth());
+        for (int i = 0; i < helpers.size(); i++) {
+            Search helper = helpers.get(i);
+            helper.clearStop();
+            int firstDepth = i % 2 == 0 ? 2 : 1;
+            running.add(pool.submit(() -> helper.iterate(game, helperLimits, firstDepth)));
+        }
+
+        SearchResult result;
+        try {
+            result = main.iterate(game, limits, 1);
+        } finally {
+            helpers.forEach(Search::stop);
+        }
+        long nodes = result.nodes();
+        for (Future<SearchResult> helper : running) {
+            nodes += waitFor(helper).nodes();
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.millis(),
+                result.principalVariation());
+    }
+
+    /**
+     * Stops a running search from any thread; bestMove returns the best move from the
+     * main thread's last finished iteration
+     */
+    public void stop() {
+        main.stop();
+    }
+
+    /**
+     * Shuts the helper threads down
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            helpers.forEach(Search::stop);
+            pool.shutdown();
+        }
+    }
+
+    private static SearchResult waitFor(Future<SearchResult> helper) {
+        try {
+            return helper.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a search thread", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        }
+    }
+}
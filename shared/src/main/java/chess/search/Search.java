@@ -0,0 +1,451 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Evaluation;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PawnStructure;
+import chess.StaticExchange;
+import chess.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the best move in a position with an alpha-beta search
+ * <p>
+ * The search deepens one ply at a time, so it can be stopped whenever a limit
+ * runs out and still answer with the last finished iteration. Each iteration is
+ * a principal variation search: the first move at a node is searched with the
+ * full window and the rest with a null window, re-searched only if they turn out
+ * better. Captures are followed past the horizon by a quiescence search so the
+ * score is never taken in the middle of an exchange; captures that lose
+ * material by {@link StaticExchange} are left out there. Moves are tried in the
+ * order most likely to cut the search short: the transposition table's move,
+ * captures by most valuable victim then least valuable attacker, promotions,
+ * two killer moves per ply, and then quiet moves by their history score.
+ * <p>
+ * Leaves are scored with the board's running piece-square evaluation plus
+ * {@link PawnStructure}.
+ * <p>
+ * A Search keeps its killer, history and pawn tables between calls and is not safe
+ * to use from more than one thread at once; the transposition table can be
+ * shared.
+ */
+public final class Search {
+
+    /** Score of being mated right now; a mate n plies away scores MATE - n */
+    public static final int MATE = 32000;
+    public static final int INFINITY = MATE + 1;
+    /** Deepest ply the search, quiescence included, will go */
+    public static final int MAX_PLY = 128;
+
+    private static final int MATE_BOUND = MATE - MAX_PLY;
+
+    // indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] ORDER_RANKS = {6, 5, 3, 2, 4, 1};
+
+    private static final int HASH_MOVE_ORDER = 1 << 30;
+    private static final int CAPTURE_ORDER = 1 << 29;
+    private static final int PROMOTION_ORDER = 1 << 28;
+    private static final int KILLER_ORDER = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private final TranspositionTable table;
+    private final MoveList[] lists = new MoveList[MAX_PLY + 1];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MoveList.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[2][64 * 64];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final long[] pathKeys = new long[MAX_PLY + 1];
+    private final PawnStructure pawns = new PawnStructure();
+
+    private ChessBoard board;
+    private int rootDepth;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private volatile boolean stopped;
+
+    /**
+     * Creates a search with its own transposition table of the default size
+     */
+    public Search() {
+        this(new TranspositionTable());
+    }
+
+    /**
+     * @param table transposition table to read and fill, which may be shared with other searches
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches the game's position for the side to move. The game itself is not changed.
+     *
+     * @param game   the position to search
+     * @param limits when to stop
+     * @return the best move found with its score and line
+     */
+    public SearchResult bestMove(ChessGame game, SearchLimits limits) {
+        stopped = false;
+        table.newSearch();
+        return iterate(game, limits, 1);
+    }
+
+    /**
+     * Asks a running search to stop and return the best move from its last finished
+     * iteration. May be called from any thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    // lets a stop that arrives before iterate starts still count, for helper threads
+    void clearStop() {
+        stopped = false;
+    }
+
+    // the iterative deepening loop, starting at firstDepth; helper threads start deeper for variety
+    SearchResult iterate(ChessGame game, SearchLimits limits, int firstDepth) {
+        long start = System.nanoTime();
+        board = new ChessBoard(game.getBoard());
+        ChessGame.TeamColor color = game.getTeamTurn();
+        nodes = 0;
+        nodeLimit = limits.maxNodes() > 0 ? limits.maxNodes() : Long.MAX_VALUE;
+        deadline = limits.maxMillis() > 0 ? start + limits.maxMillis() * 1_000_000 : Long.MAX_VALUE;
+        prepareTables();
+
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateLegal(board, color, rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = inCheck(color) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, elapsedMillis(start), List.of());
+        }
+
+        SearchResult result = null;
+        for (rootDepth = Math.min(firstDepth, limits.maxDepth()); rootDepth <= limits.maxDepth(); rootDepth++) {
+            int score = search(color, rootDepth, -INFINITY, INFINITY, 0);
+            if (stopped && result != null) {
+                break;
+            }
+            List<ChessMove> line = principalVariation();
+            if (line.isEmpty()) {
+                // stopped from outside before the first move was finished
+                line = List.of(Move.toChessMove(rootMoves.get(0)));
+            }
+            result = new SearchResult(line.get(0), score, rootDepth, nodes, elapsedMillis(start), line);
+            // no deeper iteration can find anything better than a mate it has already seen
+            if (stopped || (Math.abs(score) >= MATE_BOUND && MATE - Math.abs(score) <= rootDepth)) {
+                break;
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, elapsedMillis(start),
+                result.principalVariation());
+    }
+
+    private int search(ChessGame.TeamColor color, int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) {
+            return quiesce(color, alpha, beta, ply);
+        }
+        pvLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+        long key = board.getKey() ^ (color == ChessGame.TeamColor.BLACK ? Zobrist.blackToMove() : 0);
+        pathKeys[ply] = key;
+        if (ply > 0 && isRepetition(ply)) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluate(color);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        int hashMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean inCheck = inCheck(color);
+        if (inCheck) {
+            depth++;
+        }
+        MoveList moves = lists[ply];
+        moves.clear();
+        MoveGenerator.generateLegal(board, color, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, ply, hashMove, color);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            board.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -search(color.opponent(), depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                score = -search(color.opponent(), depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta) {
+                    score = -search(color.opponent(), depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (score >= beta) {
+                        if (isQuiet(move)) {
+                            rememberQuietCutoff(color, move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, depth, bound, scoreToTable(bestScore, ply), bestMove);
+        return bestScore;
+    }
+
+    // searches captures and promotions until the position is quiet, or every evasion when in check
+    private int quiesce(ChessGame.TeamColor color, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluate(color);
+        }
+
+        boolean inCheck = inCheck(color);
+        MoveList moves = lists[ply];
+        moves.clear();
+        MoveGenerator.generateLegal(board, color, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bestScore;
+        if (inCheck) {
+            bestScore = -INFINITY;
+        } else {
+            // standing pat: the side to move does not have to capture
+            bestScore = evaluate(color);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+            int kept = 0;
+            // captures that lose material on the exchange are not worth following
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (!isQuiet(move) && StaticExchange.evaluate(board, move) >= 0) {
+                    moves.set(kept++, move);
+                }
+            }
+            moves.truncate(kept);
+        }
+        scoreMoves(moves, ply, Move.NONE, color);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            board.makeMove(move);
+            int score = -quiesce(color.opponent(), -beta, -alpha, ply + 1);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    // piece-square score from the board plus the cached pawn structure, for the side to move
+    private int evaluate(ChessGame.TeamColor color) {
+        int score = Evaluation.evaluate(board) + pawns.evaluate(board);
+        return color == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    // counts a node and checks the limits, returning true once the search has to stop
+    private boolean countNode() {
+        nodes++;
+        if (rootDepth > 1) {
+            if (nodes >= nodeLimit) {
+                stopped = true;
+            } else if (nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    // the same position earlier on the path with the same side to move is a draw by repetition
+    private boolean isRepetition(int ply) {
+        for (int i = ply - 4; i >= 0; i -= 2) {
+            if (pathKeys[i] == pathKeys[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean inCheck(ChessGame.TeamColor color) {
+        int kingSquare = board.getKingSquare(color);
+        return kingSquare >= 0 && board.isSquareAttacked(kingSquare, color.opponent());
+    }
+
+    private void scoreMoves(MoveList moves, int ply, int hashMove, ChessGame.TeamColor color) {
+        int[] scores = orderScores[ply];
+        int[] colorHistory = history[color.ordinal()];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int key = Move.key(move);
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            if (key == hashMove) {
+                scores[i] = HASH_MOVE_ORDER;
+            } else if (Move.isCapture(move)) {
+                int victim = board.getPiece(Move.captureSquare(move)).getPieceType().ordinal();
+                int attacker = board.getPiece(Move.from(move)).getPieceType().ordinal();
+                scores[i] = CAPTURE_ORDER + ORDER_RANKS[victim] * 8 - ORDER_RANKS[attacker]
+                        + (promotion == null ? 0 : ORDER_RANKS[promotion.ordinal()]);
+            } else if (promotion != null) {
+                scores[i] = PROMOTION_ORDER + ORDER_RANKS[promotion.ordinal()];
+            } else if (key == killers[ply][0]) {
+                scores[i] = KILLER_ORDER + 1;
+            } else if (key == killers[ply][1]) {
+                scores[i] = KILLER_ORDER;
+            } else {
+                scores[i] = colorHistory[key & 0xFFF];
+            }
+        }
+    }
+
+    // moves the best scored of the remaining moves to index i and returns it
+    private int pickNext(MoveList moves, int ply, int i) {
+        int[] scores = orderScores[ply];
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        int move = moves.get(best);
+        if (best != i) {
+            moves.set(best, moves.get(i));
+            moves.set(i, move);
+            int score = scores[best];
+            scores[best] = scores[i];
+            scores[i] = score;
+        }
+        return move;
+    }
+
+    private static boolean isQuiet(int move) {
+        return !Move.isCapture(move) && Move.promotion(move) == null;
+    }
+
+    private void rememberQuietCutoff(ChessGame.TeamColor color, int move, int depth, int ply) {
+        int key = Move.key(move);
+        if (killers[ply][0] != key) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = key;
+        }
+        int[] colorHistory = history[color.ordinal()];
+        colorHistory[key & 0xFFF] += depth * depth;
+        if (colorHistory[key & 0xFFF] >= HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    // killers are position specific, but history carries over between searches at half weight
+    private void prepareTables() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        ageHistory();
+    }
+
+    private void ageHistory() {
+        for (int[] colorHistory : history) {
+            for (int i = 0; i < colorHistory.length; i++) {
+                colorHistory[i] >>= 1;
+            }
+        }
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        pv[ply][ply] = move;
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+        pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+    }
+
+    private List<ChessMove> principalVariation() {
+        List<ChessMove> line = new ArrayList<>(pvLength[0]);
+        for (int i = 0; i < pvLength[0]; i++) {
+            line.add(Move.toChessMove(pv[0][i]));
+        }
+        return line;
+    }
+
+    // mate scores are stored relative to the position, not to the root
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        return score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        return score <= -MATE_BOUND ? score + ply : score;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,45 @@
+package chess.search;
+
+/**
+ * When a search has to stop and answer. Whichever limit is reached first ends
+ * the search; a limit of 0 means no limit of that kind. The first iteration is
+ * always finished, so there is a move to return however tight the limits are.
+ *
+ * @param maxDepth  deepest iteration to search, in plies, at most {@link #MAX_DEPTH}
+ * @param maxMillis wall-clock time to search for
+ * @param maxNodes  positions to visit before stopping
+ */
+public record SearchLimits(int maxDepth, long maxMillis, long maxNodes) {
+
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 0 || maxDepth > MAX_DEPTH || maxMillis < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Invalid search limits");
+        }
+        if (maxDepth == 0) {
+            maxDepth = MAX_DEPTH;
+        }
+    }
+
+    /**
+     * @return limits that search to a fixed depth
+     */
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0);
+    }
+
+    /**
+     * @return limits that search for a fixed time
+     */
+    public static SearchLimits millis(long maxMillis) {
+        return new SearchLimits(0, maxMillis, 0);
+    }
+
+    /**
+     * @return limits that search a fixed number of positions
+     */
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(0, 0, maxNodes);
+    }
+}
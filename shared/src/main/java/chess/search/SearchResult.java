@@ -0,0 +1,27 @@
+package chess.search;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * What a search found
+ *
+ * @param bestMove           the move to play, or null if the side to move has no legal move
+ * @param score              centipawns from the side to move's point of view; within
+ *                           {@link Search#MAX_PLY} of {@link Search#MATE} means a forced mate
+ * @param depth              deepest iteration that finished
+ * @param nodes              positions visited
+ * @param millis             time spent
+ * @param principalVariation the expected line of play, starting with bestMove
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long millis,
+                           List<ChessMove> principalVariation) {
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+}
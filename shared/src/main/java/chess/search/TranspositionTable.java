@@ -0,0 +1,207 @@
+package chess.search;
+
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, keyed by a position's Zobrist key
+ * <p>
+ * Entries live in one flat {@code long[]} rather than as objects, so the table
+ * costs the collector a single primitive array however many positions it
+ * holds. The table is split into buckets of two entries of two longs each: the
+ * first entry keeps the deepest result seen for its slot and the second takes
+ * whatever does not displace the first. An entry stores its data word and its
+ * key xor-ed with the data, so an entry torn by another thread writing at the
+ * same time fails the key check instead of returning another position's data.
+ * That is what lets several search threads share one table without locks.
+ * <p>
+ * Data words pack the best move ({@link Move#key}) in bits 0-15, the
+ * score as a signed 16-bit value in bits 16-31, the depth in bits 32-39, the
+ * bound in bits 40-41 and the search generation in bits 42-49.
+ */
+public final class TranspositionTable {
+
+    public static final int BOUND_NONE = 0;
+    /** The score is exact */
+    public static final int BOUND_EXACT = 1;
+    /** The search failed high, so the real score is at least the stored one */
+    public static final int BOUND_LOWER = 2;
+    /** The search failed low, so the real score is at most the stored one */
+    public static final int BOUND_UPPER = 3;
+
+    /** What {@link #probe} returns when the position is not in the table */
+    public static final long MISS = 0;
+
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    private static final int LONGS_PER_BUCKET = 4;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private long[] table;
+    private int bucketMask;
+    // written by the thread starting a search, read by every thread searching
+    private volatile int generation;
+
+    /**
+     * Creates a table of {@link #DEFAULT_MEGABYTES}
+     */
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * @param megabytes upper bound on the table's size; the bucket count is
+     *                  rounded down to a power of two
+     */
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /**
+     * Replaces the table with an empty one of the given size
+     *
+     * @param megabytes upper bound on the table's size, at least 1
+     */
+    public void resize(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB: " + megabytes);
+        }
+        long buckets = Long.highestOneBit(((long) megabytes << 20) / BYTES_PER_BUCKET);
+        // a Java array holds fewer than 2^31 longs, which caps the table at 8 GB
+        buckets = Math.min(buckets, 1L << 28);
+        table = new long[(int) buckets * LONGS_PER_BUCKET];
+        bucketMask = (int) buckets - 1;
+        generation = 0;
+    }
+
+    /**
+     * Empties the table without giving back its memory
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        generation = 0;
+    }
+
+    /**
+     * Marks the start of a new search, so entries left by earlier searches are
+     * the first to be replaced
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * @return the table's size in bytes
+     */
+    public long sizeInBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key the position's Zobrist key
+     * @return the entry's data word, to be read with the static accessors, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int base = bucketIndex(key);
+        for (int slot = base; slot < base + LONGS_PER_BUCKET; slot += 2) {
+            long data = table[slot + 1];
+            if ((table[slot] ^ data) == key && data != MISS) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Records a search result
+     *
+     * @param key   the position's Zobrist key
+     * @param depth remaining depth the position was searched to, 0-255
+     * @param bound one of the BOUND constants
+     * @param score the score, which must fit in 16 signed bits
+     * @param move  the best move found, or {@link Move#NONE} to keep any move already stored
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int base = bucketIndex(key);
+        int deep = base;
+        int recent = base + 2;
+
+        long deepData = table[deep + 1];
+        int slot;
+        if ((table[deep] ^ deepData) == key) {
+            slot = deep;
+        } else if ((table[recent] ^ table[recent + 1]) == key) {
+            slot = depth >= depth(deepData) || generation(deepData) != generation ? deep : recent;
+        } else if (deepData == MISS || depth >= depth(deepData) || generation(deepData) != generation) {
+            slot = deep;
+        } else {
+            slot = recent;
+        }
+
+        long old = table[slot + 1];
+        boolean sameKey = (table[slot] ^ old) == key;
+        if (move == Move.NONE && sameKey) {
+            move = move(old);
+        }
+        long data = pack(depth, bound, score, move);
+        table[slot + 1] = data;
+        table[slot] = key ^ data;
+    }
+
+    /**
+     * @return roughly how full the table is, in thousandths, counting only entries
+     * from the current search
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, bucketMask + 1);
+        int used = 0;
+        for (int bucket = 0; bucket < sample; bucket++) {
+            for (int slot = bucket * LONGS_PER_BUCKET; slot < (bucket + 1) * LONGS_PER_BUCKET; slot += 2) {
+                long data = table[slot + 1];
+                if (data != MISS && generation(data) == generation) {
+                    used++;
+                }
+            }
+        }
+        return used * 1000 / (sample * 2);
+    }
+
+    /**
+     * @return the best move stored in a data word, as a {@link Move#key}
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+
+    private long pack(int depth, int bound, int score, int move) {
+        return (Move.key(move) & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) Math.min(Math.max(depth, 0), 255) << 32)
+                | ((long) bound << 40)
+                | ((long) generation << 42);
+    }
+
+    // the high bits pick the bucket, leaving the low bits free for other tables keyed the same way
+    private int bucketIndex(long key) {
+        return ((int) (key >>> 32) & bucketMask) * LONGS_PER_BUCKET;
+    }
+}
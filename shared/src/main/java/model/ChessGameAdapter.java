@@ -0,0 +1,116 @@
+package model;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Writes a ChessGame as the Base64 string of {@link ChessGame#encode()} instead of its
+ * whole object graph, so a game takes 54 characters of JSON, quotes included
+ * <p>
+ * Games stored before this encoding existed are still read: a JSON object with the
+ * original 8x8 array of pieces is taken apart field by field.
+ */
+public final class ChessGameAdapter extends TypeAdapter<ChessGame> {
+
+    /**
+     * Registers the adapter for ChessGame wherever it appears, including inside GameData
+     */
+    public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            return type.getRawType() == ChessGame.class ? (TypeAdapter<T>) new ChessGameAdapter() : null;
+        }
+    };
+
+    /**
+     * @return a Gson that writes games in the compact form
+     */
+    public static Gson gson() {
+        return new GsonBuilder().registerTypeAdapterFactory(FACTORY).create();
+    }
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        if (game == null) {
+            out.nullValue();
+        } else {
+            out.value(Base64.getEncoder().encodeToString(game.encode()));
+        }
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.STRING) {
+            try {
+                return ChessGame.decode(Base64.getDecoder().decode(in.nextString()));
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Not an encoded chess game", e);
+            }
+        }
+        return readLegacy(JsonParser.parseReader(in).getAsJsonObject());
+    }
+
+    // a game written field by field, by Gson's default reflection
+    private static ChessGame readLegacy(JsonObject json) {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        JsonObject boardJson = json.getAsJsonObject("board");
+        if (boardJson != null && boardJson.has("board")) {
+            // the original layout: 8 rows of 8, row 1 first
+            JsonArray rows = boardJson.getAsJsonArray("board");
+            for (int row = 0; row < rows.size(); row++) {
+                JsonArray cols = rows.get(row).getAsJsonArray();
+                for (int col = 0; col < cols.size(); col++) {
+                    board.addPiece(ChessPosition.of(row + 1, col + 1), readPiece(cols.get(col)));
+                }
+            }
+        } else {
+            throw new JsonParseException("Not a chess game: " + json);
+        }
+        game.setBoard(board);
+        if (json.has("teamTurn")) {
+            game.setTeamTurn(ChessGame.TeamColor.valueOf(json.get("teamTurn").getAsString()));
+        }
+        if (json.has("halfmoveClock")) {
+            game.setHalfmoveClock(json.get("halfmoveClock").getAsInt());
+        }
+        if (json.has("fullmoveNumber")) {
+            game.setFullmoveNumber(json.get("fullmoveNumber").getAsInt());
+        }
+        return game;
+    }
+
+    // a piece as an object with a color and type, or null
+    private static ChessPiece readPiece(JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            return null;
+        }
+        JsonObject piece = element.getAsJsonObject();
+        return ChessPiece.of(ChessGame.TeamColor.valueOf(piece.get("pieceColor").getAsString()),
+                ChessPiece.PieceType.valueOf(piece.get("type").getAsString()));
+    }
+}
@@ -0,0 +1,120 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CanonicalInstancesTest {
+
+    @Test
+    public void positionsOnTheBoardAreShared() {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                assertSame(position, ChessPosition.of(row, col));
+                assertEquals(new ChessPosition(row, col), position);
+                assertEquals(Objects.hash(row, col), position.hashCode());
+                assertSame(position, Bitboards.position(Bitboards.square(row, col)));
+            }
+        }
+    }
+
+    @Test
+    public void positionsOffTheBoardStillWork() {
+        ChessPosition offBoard = ChessPosition.of(0, 9);
+        assertEquals(new ChessPosition(0, 9), offBoard);
+        assertEquals(0, offBoard.getRow());
+        assertEquals(9, offBoard.getColumn());
+    }
+
+    @Test
+    public void movesAreShared() {
+        ChessMove quiet = ChessMove.of(new ChessPosition(1, 2), new ChessPosition(3, 3), null);
+        assertSame(quiet, ChessMove.of(ChessPosition.of(1, 2), ChessPosition.of(3, 3), null));
+        assertSame(ChessPosition.of(1, 2), quiet.getStartPosition());
+
+        ChessPiece.PieceType knight = ChessPiece.PieceType.KNIGHT;
+        ChessMove promotion = ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(8, 5), knight);
+        assertSame(promotion, ChessMove.of(new ChessPosition(7, 4), new ChessPosition(8, 5), knight));
+        assertSame(promotion, Move.toChessMove(Move.of(promotion) | Move.CAPTURE));
+    }
+
+    @Test
+    public void unusualMovesStillWork() {
+        // no pawn can promote from the middle of the board, so there is no shared instance, but it still compares equal
+        ChessMove odd = ChessMove.of(ChessPosition.of(4, 4), ChessPosition.of(5, 4), ChessPiece.PieceType.QUEEN);
+        assertEquals(new ChessMove(new ChessPosition(4, 4), new ChessPosition(5, 4), ChessPiece.PieceType.QUEEN), odd);
+        assertEquals(ChessPiece.PieceType.QUEEN, odd.getPromotionPiece());
+    }
+
+    @Test
+    public void hashCodesMatchEquality() {
+        for (ChessPiece.PieceType promotion : new ChessPiece.PieceType[]{null, ChessPiece.PieceType.ROOK}) {
+            ChessMove built = new ChessMove(new ChessPosition(2, 1), new ChessPosition(1, 1), promotion);
+            ChessMove shared = ChessMove.of(ChessPosition.of(2, 1), ChessPosition.of(1, 1), promotion);
+            assertEquals(built, shared);
+            assertEquals(built.hashCode(), shared.hashCode());
+            assertEquals(Objects.hash(built.getStartPosition(), built.getEndPosition(), promotion), built.hashCode());
+        }
+    }
+
+    @Test
+    public void jsonFormIsUnchanged() {
+        Gson gson = new Gson();
+        ChessMove move = ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        String json = gson.toJson(move);
+        assertFalse(json.contains("hash"), json);
+        ChessMove read = gson.fromJson(json, ChessMove.class);
+        assertEquals(move, read);
+        assertEquals(move.hashCode(), read.hashCode());
+    }
+
+    @Test
+    public void piecesAreShared() {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                ChessPiece piece = ChessPiece.of(color, type);
+                assertSame(piece, ChessPiece.of(color, type));
+                assertEquals(new ChessPiece(color, type), piece);
+                assertSame(piece, ChessPiece.fromCode(piece.code()));
+                assertEquals(piece.index() + 1, piece.code());
+            }
+        }
+        assertNull(ChessPiece.fromCode(ChessPiece.NONE));
+    }
+
+    @Test
+    public void boardsHandOutSharedPieces() throws InvalidMoveException {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessPiece whitePawn = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        for (int col = 1; col <= 8; col++) {
+            assertSame(whitePawn, board.getPiece(ChessPosition.of(2, col)));
+        }
+        assertEquals(ChessPiece.NONE, board.getPieceCode(Bitboards.square(4, 4)));
+
+        // a piece added from outside is stored by its code and read back as the shared instance
+        board.addPiece(ChessPosition.of(4, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN),
+                board.getPiece(ChessPosition.of(4, 4)));
+
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                |P| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.ROOK));
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                game.getBoard().getPiece(ChessPosition.of(8, 1)));
+    }
+}
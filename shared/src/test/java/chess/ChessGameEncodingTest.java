@@ -0,0 +1,102 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGameEncodingTest {
+
+    @Test
+    public void startingPositionRoundTrips() {
+        ChessGame game = new ChessGame();
+        byte[] bytes = game.encode();
+        assertEquals(ChessGame.ENCODED_SIZE, bytes.length);
+        assertEquals(ChessGame.ENCODING_VERSION, bytes[0]);
+
+        ChessGame decoded = ChessGame.decode(bytes);
+        assertEquals(game, decoded);
+        assertEquals(game.positionKey(), decoded.positionKey());
+        assertEquals(ChessBoard.ALL_CASTLING, decoded.getBoard().getCastlingRights());
+        assertEquals(1, decoded.getFullmoveNumber());
+    }
+
+    @Test
+    public void everythingAboutThePositionRoundTrips() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+
+        ChessGame decoded = ChessGame.decode(game.encode());
+        assertEquals(game, decoded);
+        assertEquals(game.positionKey(), decoded.positionKey());
+        assertEquals(ChessGame.TeamColor.WHITE, decoded.getTeamTurn());
+        assertEquals(ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE, decoded.getBoard().getCastlingRights());
+        assertEquals(Bitboards.square(6, 4), decoded.getBoard().getEnPassantSquare());
+        assertEquals(0, decoded.getHalfmoveClock());
+        assertEquals(3, decoded.getFullmoveNumber());
+        assertEquals(game.validMoves(ChessPosition.of(2, 5)), decoded.validMoves(ChessPosition.of(2, 5)));
+    }
+
+    @Test
+    public void clocksFollowTheMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null));
+        assertEquals(3, game.getHalfmoveClock());
+        assertEquals(2, game.getFullmoveNumber());
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(3, game.getFullmoveNumber());
+
+        game.setHalfmoveClock(99);
+        game.setFullmoveNumber(300);
+        ChessGame decoded = ChessGame.decode(game.encode());
+        assertEquals(99, decoded.getHalfmoveClock());
+        assertEquals(300, decoded.getFullmoveNumber());
+    }
+
+    @Test
+    public void blackToMoveAndSparseBoardsRoundTrip() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|q|
+                |R| | | | | |K| |
+                """));
+        game.getBoard().setCastlingRights(0);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        ChessGame decoded = ChessGame.decode(game.encode());
+        assertEquals(game, decoded);
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.getTeamTurn());
+        assertEquals(0, decoded.getBoard().getCastlingRights());
+        assertEquals(-1, decoded.getBoard().getEnPassantSquare());
+        assertEquals(game.evaluate(), decoded.evaluate());
+    }
+
+    @Test
+    public void rejectsBadInput() {
+        byte[] bytes = new ChessGame().encode();
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.decode(new byte[10]));
+
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.decode(wrongVersion));
+
+        byte[] badPiece = bytes.clone();
+        badPiece[20] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.decode(badPiece));
+
+        byte[] badEnPassant = bytes.clone();
+        badEnPassant[34] = 30;
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.decode(badEnPassant));
+    }
+}
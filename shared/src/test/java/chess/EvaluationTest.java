@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationTest {
+
+    @Test
+    public void startingPositionIsEven() {
+        ChessGame game = new ChessGame();
+        assertEquals(0, game.evaluate());
+        assertEquals(Evaluation.MAX_PHASE, game.getBoard().getPhase());
+    }
+
+    @Test
+    public void mirroredPositionNegatesScore() {
+        ChessBoard board = new ChessBoard();
+        ChessBoard mirrored = new ChessBoard();
+        placeBoth(board, mirrored, 1, 7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        placeBoth(board, mirrored, 8, 3, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        placeBoth(board, mirrored, 4, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        placeBoth(board, mirrored, 6, 2, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        placeBoth(board, mirrored, 7, 7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        assertNotEquals(0, Evaluation.evaluate(board));
+        assertEquals(-Evaluation.evaluate(board), Evaluation.evaluate(mirrored));
+    }
+
+    @Test
+    public void runningScoresMatchRebuiltBoard() throws InvalidMoveException {
+        Random random = new Random(240);
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < 80; ply++) {
+            MoveList moves = new MoveList();
+            MoveGenerator.generateLegal(game.getBoard(), game.getTeamTurn(), moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.makeMove(Move.toChessMove(moves.get(random.nextInt(moves.size()))));
+
+            ChessBoard rebuilt = new ChessBoard();
+            for (int square = 0; square < 64; square++) {
+                rebuilt.addPiece(Bitboards.position(square), game.getBoard().getPiece(square));
+            }
+            assertEquals(rebuilt.getMidgameScore(), game.getBoard().getMidgameScore());
+            assertEquals(rebuilt.getEndgameScore(), game.getBoard().getEndgameScore());
+            assertEquals(rebuilt.getPhase(), game.getBoard().getPhase());
+        }
+    }
+
+    @Test
+    public void extraMaterialWins() {
+        ChessGame game = new ChessGame();
+        game.getBoard().addPiece(new ChessPosition(8, 4), null);
+        assertTrue(game.evaluate() > 800);
+    }
+
+    // puts a piece on one board and the color-swapped piece on the mirrored square of the other
+    private static void placeBoth(ChessBoard board, ChessBoard mirrored, int row, int col,
+                                  ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        board.addPiece(new ChessPosition(row, col), new ChessPiece(color, type));
+        mirrored.addPiece(new ChessPosition(9 - row, col), new ChessPiece(color.opponent(), type));
+    }
+}
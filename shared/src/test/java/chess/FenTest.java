@@ -0,0 +1,106 @@
+package chess;
+
+import chess.book.OpeningBook;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTest {
+
+    @Test
+    public void startingPosition() {
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        assertEquals(new ChessGame(), game);
+        assertEquals(new ChessGame().positionKey(), game.positionKey());
+        assertEquals(Fen.START, new ChessGame().toFen());
+    }
+
+    @Test
+    public void followsTheGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 3), ChessPosition.of(5, 3), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        assertEquals("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2", game.toFen());
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 4), ChessPosition.of(5, 1), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(1, 8), ChessPosition.of(1, 7), null));
+        assertEquals("rnb1kbnr/pp1ppppp/8/q1p5/4P3/5N2/PPPP1PPP/RNBQKBR1 b Qkq - 3 3", game.toFen());
+
+        ChessGame parsed = ChessGame.fromFen(game.toFen());
+        assertEquals(game, parsed);
+        assertEquals(game.positionKey(), parsed.positionKey());
+        assertEquals(game.toFen(), parsed.toFen());
+    }
+
+    @Test
+    public void roundTripsEveryField() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b Kq a3 17 42";
+        ChessGame game = ChessGame.fromFen(fen);
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(ChessBoard.WHITE_KINGSIDE | ChessBoard.BLACK_QUEENSIDE, game.getBoard().getCastlingRights());
+        assertEquals(Bitboards.square(3, 1), game.getBoard().getEnPassantSquare());
+        assertEquals(17, game.getHalfmoveClock());
+        assertEquals(42, game.getFullmoveNumber());
+        assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    public void matchesHandBuiltBoards() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |b| | | | |
+                | | | | | | | | |
+                | | | | | |N| | |
+                |P| | | | | | | |
+                |R| | | |K| | | |
+                """);
+        String placement = "4k3/8/8/3b4/8/5N2/P7/R3K3";
+        assertEquals(placement, Fen.formatPlacement(board));
+        assertEquals(board, Fen.parsePlacement(placement));
+
+        // the board keeps every right, but only white's queenside one has its king and rook
+        assertEquals(ChessBoard.WHITE_QUEENSIDE, board.getUsableCastlingRights());
+        ChessGame handBuilt = new ChessGame();
+        handBuilt.setBoard(board);
+        ChessGame parsed = ChessGame.fromFen(placement + " w Q - 0 1");
+        assertEquals(parsed.positionKey(), handBuilt.positionKey());
+        assertEquals(OpeningBook.polyglotKey(parsed), OpeningBook.polyglotKey(handBuilt));
+    }
+
+    @Test
+    public void clocksAreOptional() {
+        ChessGame game = ChessGame.fromFen("8/8/8/8/8/8/8/K6k w - -");
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(1, game.getFullmoveNumber());
+        assertEquals(0, game.getBoard().getCastlingRights());
+        assertEquals("8/8/8/8/8/8/8/K6k w - - 0 1", game.toFen());
+    }
+
+    @Test
+    public void rejectsMalformedStrings() {
+        String[] bad = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNRR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBXKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KKkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+        };
+        for (String fen : bad) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
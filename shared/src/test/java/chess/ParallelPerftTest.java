@@ -0,0 +1,39 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelPerftTest {
+
+    @Test
+    public void matchesSerialCount() {
+        ChessGame game = Perft.REFERENCE_POSITIONS.get(2).toGame();
+        assertEquals(Perft.perft(game, 3), ParallelPerft.perft(game, 3));
+    }
+
+    @Test
+    public void deeperSplitMatchesSerialCount() {
+        ChessGame game = new ChessGame();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(197281, ParallelPerft.perft(game, 4, 3, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void countsBatchInOrder() {
+        List<ChessGame> games = Perft.REFERENCE_POSITIONS.stream().map(Perft.Reference::toGame).toList();
+        long[] counts = ParallelPerft.perftAll(games, 2, ForkJoinPool.commonPool());
+        assertEquals(games.size(), counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            assertEquals(Perft.REFERENCE_POSITIONS.get(i).counts()[1], counts[i]);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PawnStructureTest {
+
+    @Test
+    public void startingPositionIsEven() {
+        PawnStructure pawns = new PawnStructure();
+        ChessBoard board = new ChessGame().getBoard();
+        assertEquals(0, pawns.evaluate(board));
+        assertEquals(0, pawns.passedPawns(board));
+    }
+
+    @Test
+    public void findsPassedPawns() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | |P| | | | | | |
+                | | | | | | |p| |
+                | | | | | | |P| |
+                | | | | | | | | |
+                | | | |p| | | | |
+                | | | | |K| | | |
+                """);
+        PawnStructure pawns = new PawnStructure();
+        long expected = (1L << Bitboards.square(6, 2)) | (1L << Bitboards.square(2, 4));
+        assertEquals(expected, pawns.passedPawns(board));
+    }
+
+    @Test
+    public void penalisesDoubledAndIsolatedPawns() {
+        ChessBoard healthy = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                | | | | |K| | | |
+                """);
+        ChessBoard weak = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |P|
+                | | | | |P| | |P|
+                | | | | |K| | | |
+                """);
+        PawnStructure pawns = new PawnStructure();
+        assertEquals(0, pawns.evaluate(healthy));
+        assertTrue(pawns.evaluate(weak) < 0);
+    }
+
+    @Test
+    public void cachesByPawnKey() throws InvalidMoveException {
+        PawnStructure pawns = new PawnStructure(1024);
+        ChessGame game = new ChessGame();
+        int score = pawns.evaluate(game.getBoard());
+        // a knight move leaves the pawns where they were
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertEquals(score, pawns.evaluate(game.getBoard()));
+        assertEquals(2, pawns.getProbes());
+        assertEquals(1, pawns.getHits());
+
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        ChessBoard rebuilt = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            rebuilt.addPiece(Bitboards.position(square), game.getBoard().getPiece(square));
+        }
+        assertEquals(rebuilt.getPawnKey(), game.getBoard().getPawnKey());
+        assertNotEquals(new ChessGame().getBoard().getPawnKey(), game.getBoard().getPawnKey());
+    }
+}
@@ -0,0 +1,48 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    // keep the unit run quick; the full depths are checked by running Perft.main
+    private static final long MAX_NODES = 200_000;
+
+    @Test
+    public void referencePositions() {
+        for (Perft.Reference reference : Perft.REFERENCE_POSITIONS) {
+            ChessGame game = reference.toGame();
+            for (int depth = 1; depth <= reference.counts().length; depth++) {
+                long expected = reference.counts()[depth - 1];
+                if (expected > MAX_NODES) {
+                    break;
+                }
+                assertEquals(expected, Perft.perft(game, depth), reference.name() + " depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    public void perftLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        Perft.perft(game, 3);
+        assertEquals(new ChessGame(), game);
+        assertEquals(new ChessGame().positionKey(), game.positionKey());
+    }
+
+    @Test
+    public void divideAddsUpToPerft() {
+        ChessGame game = Perft.REFERENCE_POSITIONS.get(2).toGame();
+        Map<ChessMove, Long> divided = Perft.divide(game, 2);
+        assertEquals(46, divided.size());
+        assertEquals(Perft.perft(game, 2), divided.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void depthZeroIsOneNode() {
+        assertEquals(1, Perft.perft(new ChessGame(), 0));
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SanTest {
+
+    @Test
+    public void pawnsAndPromotions() {
+        ChessGame game = ChessGame.fromFen("3rk3/2P5/8/8/8/8/4P3/4K3 w - - 0 1");
+        assertEquals("e4", San.format(game, move(2, 5, 4, 5, null)));
+        assertEquals("cxd8=Q+", San.format(game, move(7, 3, 8, 4, ChessPiece.PieceType.QUEEN)));
+        assertEquals("cxd8=N", San.format(game, move(7, 3, 8, 4, ChessPiece.PieceType.KNIGHT)));
+        assertEquals("c8=R", San.format(game, move(7, 3, 8, 3, ChessPiece.PieceType.ROOK)));
+
+        assertEquals(move(7, 3, 8, 4, ChessPiece.PieceType.QUEEN), San.parse(game, "cxd8=Q+"));
+        assertEquals(move(7, 3, 8, 4, ChessPiece.PieceType.BISHOP), San.parse(game, "cxd8B"));
+        assertEquals(move(7, 3, 8, 3, ChessPiece.PieceType.ROOK), San.parse(game, "c8=R!?"));
+        assertEquals(move(2, 5, 3, 5, null), San.parse(game, "e3"));
+    }
+
+    @Test
+    public void disambiguates() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/R7/8/Q7/8/QNQ2N1K w - - 0 1");
+        assertEquals("Nbd2", San.format(game, move(1, 2, 2, 4, null)));
+        assertEquals("Nfd2", San.format(game, move(1, 6, 2, 4, null)));
+        assertEquals("Ra4", San.format(game, move(5, 1, 4, 1, null)));
+        assertEquals("Qa1b2", San.format(game, move(1, 1, 2, 2, null)));
+        assertEquals("Q3b2", San.format(game, move(3, 1, 2, 2, null)));
+        assertEquals("Qcb2", San.format(game, move(1, 3, 2, 2, null)));
+        assertEquals("Nh2", San.format(game, move(1, 6, 2, 8, null)));
+
+        assertEquals(move(1, 2, 2, 4, null), San.parse(game, "Nbd2"));
+        assertEquals(move(1, 1, 2, 2, null), San.parse(game, "Qa1b2"));
+        assertEquals(move(3, 1, 2, 2, null), San.parse(game, "Q3b2"));
+        // more than the notation needs is still read
+        assertEquals(move(1, 6, 2, 8, null), San.parse(game, "Nf1h2"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Nd2"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Qb2"));
+    }
+
+    @Test
+    public void marksCheckAndMate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String san : new String[]{"f3", "e5", "g4"}) {
+            game.makeMove(San.parse(game, san));
+        }
+        ChessMove mate = San.parse(game, "Qh4");
+        assertEquals("Qh4#", San.format(game, mate));
+        game.makeMove(mate);
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+        ChessGame check = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertEquals("Ra8+", San.format(check, move(1, 1, 8, 1, null)));
+        assertEquals("Ra7", San.format(check, move(1, 1, 7, 1, null)));
+    }
+
+    @Test
+    public void leavesTheBoardAlone() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+        ChessBoard board = game.getBoard();
+        long key = board.getKey();
+        String fen = game.toFen();
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(board, game.getTeamTurn(), legal);
+        for (int i = 0; i < legal.size(); i++) {
+            String san = San.format(board, legal, legal.get(i));
+            assertEquals(legal.get(i), San.parse(board, legal, san), san);
+        }
+        assertEquals(key, board.getKey());
+        assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    public void castlesAndTakesEnPassant() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/3pP3/8/8/8/R3K2R w KQkq d6 0 2");
+        assertEquals("O-O", San.format(game, move(1, 5, 1, 7, null)));
+        assertEquals("O-O-O", San.format(game, move(1, 5, 1, 3, null)));
+        assertEquals("exd6", San.format(game, move(5, 5, 6, 4, null)));
+
+        assertEquals(move(1, 5, 1, 7, null), San.parse(game, "O-O"));
+        assertEquals(move(1, 5, 1, 3, null), San.parse(game, "0-0-0"));
+        assertEquals(move(5, 5, 6, 4, null), San.parse(game, "exd6"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "O-O-"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "O-0"));
+
+        ChessGame check = ChessGame.fromFen("5k2/8/8/8/8/8/8/4K2R w K - 0 1");
+        assertEquals("O-O+", San.format(check, move(1, 5, 1, 7, null)));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(check, "O-O-O"));
+    }
+
+    @Test
+    public void rejectsBadMoves() {
+        ChessGame game = new ChessGame();
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, ""));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "+"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "e5"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Ke2"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Nz3"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "e8=K"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "N*c3"));
+        assertThrows(IllegalArgumentException.class, () -> San.format(game, move(2, 5, 5, 5, null)));
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol, ChessPiece.PieceType promotion) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), promotion);
+    }
+}
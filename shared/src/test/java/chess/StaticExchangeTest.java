@@ -0,0 +1,176 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaticExchangeTest {
+
+    @Test
+    public void undefendedPieceIsWon() {
+        ChessGame game = gameWith("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |n| | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        assertEquals(320, game.staticExchange(move(4, 5, 5, 4)));
+    }
+
+    @Test
+    public void rookTakingDefendedPawnLosesExchange() {
+        ChessGame game = gameWith("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | |p| | | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |R| |K| |
+                """);
+        assertEquals(100 - 500, game.staticExchange(move(1, 5, 5, 5)));
+    }
+
+    @Test
+    public void pieceBehindJoinsExchange() {
+        ChessGame game = gameWith("""
+                | | | | |r| |k| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |R| | | |
+                | | | | |R| |K| |
+                """);
+        // rook takes pawn, rook takes rook, the rook behind takes back
+        assertEquals(100, game.staticExchange(move(2, 5, 5, 5)));
+    }
+
+    @Test
+    public void kingDoesNotRecaptureIntoDefendedSquare() {
+        ChessGame game = gameWith("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |k| | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |R| | | |
+                | | | | |R| |K| |
+                """);
+        assertEquals(100, game.staticExchange(move(2, 5, 5, 5)));
+    }
+
+    @Test
+    public void quietMoveOntoAttackedSquareLosesPiece() {
+        ChessGame game = gameWith("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |Q| |K| |
+                """);
+        assertEquals(-900, game.staticExchange(move(1, 5, 5, 5)));
+        assertEquals(0, game.staticExchange(move(1, 5, 2, 5)));
+    }
+
+    @Test
+    public void validMovesPutBestCaptureFirst() {
+        ChessGame game = gameWith("""
+                | | | | |k| | | |
+                | | | | |p| | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                |r| | |Q| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |K| |
+                """);
+        List<ChessMove> moves = new ArrayList<>(game.validMoves(new ChessPosition(4, 4)));
+        assertEquals(move(4, 4, 4, 1), moves.get(0));
+        assertEquals(move(4, 4, 6, 4), moves.get(1));
+    }
+
+    @Test
+    public void ordersCapturesInPlace() {
+        ChessBoard board = gameWith("""
+                | | | | |k| | | |
+                | | | | |p| | | |
+                | |p| |p| | | |n|
+                | | | | | | | | |
+                |r| | |Q| | | |p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |K| |
+                """).getBoard();
+        MoveList moves = new MoveList();
+        moves.add(Move.NONE);
+        MoveGenerator.generateLegal(board, ChessGame.TeamColor.WHITE, moves);
+        List<Integer> quiet = new ArrayList<>();
+        for (int i = 1; i < moves.size(); i++) {
+            if (!Move.isCapture(moves.get(i))) {
+                quiet.add(moves.get(i));
+            }
+        }
+        int size = moves.size();
+        StaticExchange.orderCaptures(board, moves, 1);
+
+        assertEquals(size, moves.size());
+        assertEquals(Move.NONE, moves.get(0), "moves before the start are left alone");
+        int captures = moves.size() - 1 - quiet.size();
+        assertEquals(4, captures);
+        for (int i = 1; i <= captures; i++) {
+            assertTrue(Move.isCapture(moves.get(i)));
+            if (i > 1) {
+                assertTrue(StaticExchange.evaluate(board, moves.get(i - 1))
+                        >= StaticExchange.evaluate(board, moves.get(i)));
+            }
+        }
+        for (int i = 0; i < quiet.size(); i++) {
+            assertEquals((int) quiet.get(i), moves.get(1 + captures + i));
+        }
+    }
+
+    @Test
+    public void enPassantTakesThePawnBesideIt() {
+        ChessGame game = gameWith("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |p|P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        game.getBoard().setEnPassantSquare(Bitboards.square(6, 4));
+        assertEquals(100, game.staticExchange(move(5, 5, 6, 4)));
+        // with the d5 pawn gone the rook behind it can take back
+        game.getBoard().addPiece(new ChessPosition(3, 4), ChessPiece.of(ChessGame.TeamColor.BLACK,
+                ChessPiece.PieceType.ROOK));
+        assertEquals(0, game.staticExchange(move(5, 5, 6, 4)));
+    }
+
+    private static ChessGame gameWith(String boardText) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        return game;
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
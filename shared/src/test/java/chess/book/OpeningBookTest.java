@@ -0,0 +1,196 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.San;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTest {
+
+    private static final ChessMove E4 = move(2, 5, 4, 5);
+    private static final ChessMove D4 = move(2, 4, 4, 4);
+    private static final ChessMove NF3 = move(1, 7, 3, 6);
+    private static final ChessMove E5 = move(7, 5, 5, 5);
+
+    @Test
+    public void looksUpMovesByWeight() throws IOException, InvalidMoveException {
+        OpeningBookWriter writer = new OpeningBookWriter();
+        ChessGame start = new ChessGame();
+        writer.add(start, D4, 30);
+        writer.add(start, E4, 50);
+        writer.add(start, NF3, 5);
+        writer.add(start, E4, 10);
+        ChessGame afterE4 = new ChessGame();
+        afterE4.makeMove(E4);
+        writer.add(afterE4, E5, 7);
+        assertEquals(4, writer.size());
+
+        try (OpeningBook book = open(writer)) {
+            assertEquals(4, book.size());
+            assertEquals(List.of(new BookMove(E4, 60), new BookMove(D4, 30), new BookMove(NF3, 5)),
+                    book.lookup(start));
+            assertEquals(List.of(new BookMove(E5, 7)), book.lookup(afterE4));
+
+            ChessGame afterD4 = new ChessGame();
+            afterD4.makeMove(D4);
+            assertTrue(book.lookup(afterD4).isEmpty());
+        }
+    }
+
+    @Test
+    public void weightsAreCapped() throws IOException {
+        OpeningBookWriter writer = new OpeningBookWriter();
+        ChessGame start = new ChessGame();
+        writer.add(start, E4, 70000);
+        writer.add(start, D4, 40000);
+        writer.add(start, D4, 40000);
+        try (OpeningBook book = open(writer)) {
+            assertEquals(List.of(new BookMove(E4, 0xFFFF), new BookMove(D4, 0xFFFF)), book.lookup(start));
+        }
+    }
+
+    @Test
+    public void keysMatchPolyglot() throws InvalidMoveException {
+        // the reference keys given with the Polyglot book format
+        assertEquals(0x463b96181691fc9cL, keyAfter(""));
+        assertEquals(0x823c9b50fd114196L, keyAfter("e4"));
+        assertEquals(0x0756b94461c50fb0L, keyAfter("e4 d5"));
+        assertEquals(0x662fafb965db29d4L, keyAfter("e4 d5 e5"));
+        assertEquals(0x22a48b5a8e47ff78L, keyAfter("e4 d5 e5 f5"));
+        assertEquals(0x652a607ca3f242c1L, keyAfter("e4 d5 e5 f5 Ke2"));
+        assertEquals(0x00fdd303c946bdd9L, keyAfter("e4 d5 e5 f5 Ke2 Kf7"));
+        assertEquals(0x3c8123ea7b067637L, keyAfter("a4 b5 h4 b4 c4"));
+        assertEquals(0x5c3f9b829b279560L, keyAfter("a4 b5 h4 b4 c4 bxc3 Ra3"));
+    }
+
+    @Test
+    public void sideToMoveIsPartOfThePosition() throws IOException {
+        OpeningBookWriter writer = new OpeningBookWriter();
+        writer.add(new ChessGame(), E4, 1);
+        ChessGame blackToMove = new ChessGame();
+        blackToMove.setTeamTurn(ChessGame.TeamColor.BLACK);
+        try (OpeningBook book = open(writer)) {
+            assertTrue(book.lookup(blackToMove).isEmpty());
+        }
+    }
+
+    @Test
+    public void picksInProportionToWeight() throws IOException {
+        OpeningBookWriter writer = new OpeningBookWriter();
+        ChessGame start = new ChessGame();
+        writer.add(start, E4, 3);
+        writer.add(start, D4, 1);
+        writer.add(start, NF3, 0);
+        try (OpeningBook book = open(writer)) {
+            Random random = new Random(7);
+            int e4 = 0;
+            for (int i = 0; i < 4000; i++) {
+                ChessMove picked = book.pick(start, random);
+                assertNotEquals(NF3, picked, "A move with no weight should never be picked");
+                if (picked.equals(E4)) {
+                    e4++;
+                }
+            }
+            assertTrue(e4 > 2800 && e4 < 3200, "e4 picked " + e4 + " times out of 4000");
+
+            ChessGame blackToMove = new ChessGame();
+            blackToMove.setTeamTurn(ChessGame.TeamColor.BLACK);
+            assertNull(book.pick(blackToMove, random));
+        }
+    }
+
+    @Test
+    public void promotionsRoundTrip() throws IOException {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | |P| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        OpeningBookWriter writer = new OpeningBookWriter();
+        ChessMove underpromotion = new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2),
+                ChessPiece.PieceType.KNIGHT);
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2),
+                ChessPiece.PieceType.QUEEN);
+        writer.add(game, underpromotion, 2);
+        writer.add(game, promotion, 9);
+        try (OpeningBook book = open(writer)) {
+            List<BookMove> moves = book.lookup(game);
+            assertEquals(2, moves.size());
+            assertEquals(List.of(new BookMove(promotion, 9), new BookMove(underpromotion, 2)), moves);
+        }
+    }
+
+    @Test
+    public void moveEncodingMatchesPolyglot() {
+        // e2e4: to-square 28 in the low bits, from-square 12 above it
+        assertEquals(28 | (12 << 6), OpeningBook.toBookMove(Move.of(E4)));
+        int promotion = Move.of(48, 56, ChessPiece.PieceType.QUEEN, 0);
+        assertEquals(56 | (48 << 6) | (4 << 12), OpeningBook.toBookMove(promotion));
+        assertEquals(promotion, OpeningBook.toMove(OpeningBook.toBookMove(promotion)));
+        // castling is the king taking its own rook: e1h1 and e8a8
+        assertEquals(7 | (4 << 6), OpeningBook.toBookMove(Move.of(4, 6) | Move.CASTLE));
+        assertEquals(56 | (60 << 6), OpeningBook.toBookMove(Move.of(60, 58) | Move.CASTLE));
+    }
+
+    @Test
+    public void castlingRoundTrips() throws IOException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        ChessMove kingside = new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 7), null);
+        OpeningBookWriter writer = new OpeningBookWriter();
+        writer.add(game, kingside, 3);
+        try (OpeningBook book = open(writer)) {
+            assertEquals(List.of(new BookMove(kingside, 3)), book.lookup(game));
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedFiles() throws IOException {
+        Path file = Files.createTempFile("book", ".bin");
+        try {
+            Files.write(file, new byte[OpeningBook.ENTRY_SIZE + 3]);
+            assertThrows(IOException.class, () -> new OpeningBook(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static long keyAfter(String moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String san : moves.split(" ")) {
+            if (!san.isEmpty()) {
+                game.makeMove(San.parse(game, san));
+            }
+        }
+        return OpeningBook.polyglotKey(game);
+    }
+
+    private static OpeningBook open(OpeningBookWriter writer) throws IOException {
+        Path file = Files.createTempFile("book", ".bin");
+        file.toFile().deleteOnExit();
+        writer.write(file);
+        return new OpeningBook(file);
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,185 @@
+package chess.endgame;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EndgameTablesTest {
+
+    private static Path directory;
+    private static byte[] queenTable;
+
+    // only the queen table, the quickest to build; the rook and pawn tables use the same code
+    @BeforeAll
+    public static void generateQueenTable() throws IOException {
+        directory = Files.createTempDirectory("endgame");
+        queenTable = EndgameTableGenerator.generate(ChessPiece.PieceType.QUEEN, Map.of());
+        EndgameTableGenerator.write(directory.resolve(EndgameTables.fileName(ChessPiece.PieceType.QUEEN)), queenTable);
+    }
+
+    @AfterAll
+    public static void deleteTables() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void longestQueenMateIsTenMoves() {
+        int longest = 0;
+        for (byte value : queenTable) {
+            longest = Math.max(longest, value);
+        }
+        assertEquals(19, longest);
+    }
+
+    @Test
+    public void findsMateInOne() {
+        ChessGame game = gameWith("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |Q| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        try (EndgameTables tables = new EndgameTables(directory)) {
+            assertEquals(new EndgameResult(EndgameResult.Outcome.WIN, 1), game.probeEndgameTables(tables));
+        }
+    }
+
+    @Test
+    public void handBuiltBoardsAreProbedWithTheirDefaultRights() {
+        // a new board keeps every castling right, but none has its king and rook at home here
+        ChessGame game = gameWith("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |Q| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        assertEquals(ChessBoard.ALL_CASTLING, game.getBoard().getCastlingRights());
+        try (EndgameTables tables = new EndgameTables(directory)) {
+            assertEquals(new EndgameResult(EndgameResult.Outcome.WIN, 1), game.probeEndgameTables(tables));
+        }
+    }
+
+    @Test
+    public void kingAndRookThatCanCastleAreNotProbed() throws IOException {
+        // every position drawn, just so a rook table is there to be probed
+        Path rookDirectory = Files.createTempDirectory("endgame");
+        Path rookTable = rookDirectory.resolve(EndgameTables.fileName(ChessPiece.PieceType.ROOK));
+        EndgameTableGenerator.write(rookTable, new byte[EndgameTables.TABLE_SIZE]);
+        ChessGame game = gameWith("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | |R|
+                """, ChessGame.TeamColor.WHITE);
+        try (EndgameTables tables = new EndgameTables(rookDirectory)) {
+            assertNull(game.probeEndgameTables(tables));
+            game.getBoard().setCastlingRights(ChessBoard.WHITE_QUEENSIDE | ChessBoard.BLACK_KINGSIDE);
+            assertEquals(EndgameResult.DRAW, game.probeEndgameTables(tables));
+        } finally {
+            Files.delete(rookTable);
+            Files.delete(rookDirectory);
+        }
+    }
+
+    @Test
+    public void blackWithQueenIsProbedFlipped() {
+        // the same position with colors swapped and the board turned over
+        ChessGame game = gameWith("""
+                |q| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | |K| |
+                """, ChessGame.TeamColor.BLACK);
+        try (EndgameTables tables = new EndgameTables(directory, 1)) {
+            assertEquals(new EndgameResult(EndgameResult.Outcome.WIN, 1), game.probeEndgameTables(tables));
+            game.setTeamTurn(ChessGame.TeamColor.WHITE);
+            assertEquals(EndgameResult.Outcome.LOSS, game.probeEndgameTables(tables).outcome());
+        }
+    }
+
+    @Test
+    public void hangingQueenIsDraw() {
+        ChessGame game = gameWith("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |q|K| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |k| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        try (EndgameTables tables = new EndgameTables(directory)) {
+            assertEquals(EndgameResult.DRAW, game.probeEndgameTables(tables));
+        }
+    }
+
+    @Test
+    public void missingTablesAndBigPositionsAreNotProbed() {
+        ChessGame rookEnding = gameWith("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        ChessGame bishopEnding = gameWith("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |B| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        try (EndgameTables tables = new EndgameTables(directory)) {
+            assertNull(rookEnding.probeEndgameTables(tables));
+            assertEquals(EndgameResult.DRAW, bishopEnding.probeEndgameTables(tables));
+            assertNull(new ChessGame().probeEndgameTables(tables));
+        }
+    }
+
+    private static ChessGame gameWith(String boardText, ChessGame.TeamColor toMove) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(toMove);
+        return game;
+    }
+}
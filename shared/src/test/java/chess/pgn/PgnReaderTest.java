@@ -0,0 +1,161 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnReaderTest {
+
+    private static final String SCHOLARS_MATE = """
+            [Event "Casual game"]
+            [Site "Provo"]
+            [White "Anna"]
+            [Black "Björn \\"B\\" Berg"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Qh5 {threatening mate} Nc6 (2... g6 3. Qxe5+) 3. Bc4 Nf6?? 4. Qxf7# 1-0
+            """;
+
+    @Test
+    public void readsTagsAndMoves() throws IOException, InvalidMoveException {
+        PgnGame game = readOne(SCHOLARS_MATE);
+        assertEquals("Casual game", game.tags().get("Event"));
+        assertEquals("Björn \"B\" Berg", game.tags().get("Black"));
+        assertEquals(List.of("Event", "Site", "White", "Black", "Result"), List.copyOf(game.tags().keySet()));
+        assertEquals("1-0", game.result());
+        assertEquals(7, game.moves().size());
+        assertEquals(move(5, 8, 7, 6), game.moves().get(6));
+        assertTrue(game.play().isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void readsManyGamesAsAStream() throws IOException {
+        String second = """
+                [Event "Second"]
+                [Result "1/2-1/2"]
+
+                1.d4 d5 2.c4 dxc4 3.Nf3 Nf6 4.e3 Bg4 5.Bxc4 e6 6.Qb3 Bxf3 7.Qxb7 Nbd7 8.gxf3 1/2-1/2
+                """;
+        StringBuilder pgn = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            pgn.append(i % 2 == 0 ? SCHOLARS_MATE : second).append('\n');
+        }
+        List<PgnGame> games = new ArrayList<>();
+        try (PgnReader reader = reader(pgn.toString())) {
+            assertEquals(500, reader.readAll(games::add));
+        }
+        assertEquals("Second", games.get(1).tags().get("Event"));
+        assertEquals(15, games.get(1).moves().size());
+        // Nbd7: the knight from b8, not the one on f6
+        assertEquals(move(8, 2, 7, 4), games.get(1).moves().get(13));
+    }
+
+    @Test
+    public void startsFromFenTag() throws IOException {
+        PgnGame game = readOne("""
+                [SetUp "1"]
+                [FEN "4k3/1P6/8/8/8/8/8/4K3 w - - 0 40"]
+
+                40. b8=N Kf7 41. Nc6 *
+                """);
+        assertEquals(40, game.start().getFullmoveNumber());
+        assertEquals(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT),
+                game.moves().get(0));
+        assertEquals(PgnGame.UNKNOWN_RESULT, game.result());
+    }
+
+    @Test
+    public void skipsCommentsEscapesAndAnnotations() throws IOException {
+        PgnGame game = readOne("""
+                % a line for some other program
+                [Result "0-1"]
+
+                1. f3 $2 ; a comment to the end of the line e4
+                1... e5 {a comment (with brackets)} 2. g4!? (2. Kf2 (2. e4) Qh4+) Qh4# 0-1
+                """);
+        assertEquals(4, game.moves().size());
+        assertEquals("0-1", game.result());
+    }
+
+    @Test
+    public void gameWithoutResultEndsAtNextTags() throws IOException {
+        try (PgnReader reader = reader("1. e4 e5\n[Event \"next\"]\n1. d4 *\n")) {
+            assertEquals(2, reader.readGame().moves().size());
+            PgnGame next = reader.readGame();
+            assertEquals("next", next.tags().get("Event"));
+            assertEquals(1, next.moves().size());
+            assertNull(reader.readGame());
+        }
+    }
+
+    @Test
+    public void badGameIsSkipped() throws IOException {
+        String pgn = """
+                [Event "bad"]
+
+                1. e4 e5 2. Ke3 Nc6 1-0
+
+                [Event "good"]
+
+                1. e4 *
+                """;
+        try (PgnReader reader = reader(pgn)) {
+            PgnException e = assertThrows(PgnException.class, reader::readGame);
+            assertEquals(3, e.getLine());
+            assertEquals("good", reader.readGame().tags().get("Event"));
+            assertNull(reader.readGame());
+        }
+    }
+
+    @Test
+    public void rejectsAmbiguousMoves() throws IOException {
+        String pgn = """
+                [FEN "4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1"]
+
+                1. Nd2 *
+                """;
+        try (PgnReader reader = reader(pgn)) {
+            assertThrows(PgnException.class, reader::readGame);
+        }
+        assertEquals(1, readOne(pgn.replace("Nd2", "Nbd2")).moves().size());
+    }
+
+    @Test
+    public void readsCastlingAndEnPassant() throws IOException, InvalidMoveException {
+        PgnGame game = readOne("1. e4 Nf6 2. e5 d5 3. exd6 exd6 4. Nf3 Be7 5. Bc4 O-O 6. 0-0 *\n");
+        assertEquals(11, game.moves().size());
+        assertEquals(move(5, 5, 6, 4), game.moves().get(4));
+        ChessBoard board = game.play().getBoard();
+        assertEquals("rnbq1rk1/ppp1bppp/3p1n2/8/2B5/5N2/PPPP1PPP/RNBQ1RK1", Fen.formatPlacement(board));
+        assertEquals(0, board.getCastlingRights());
+    }
+
+    private static PgnGame readOne(String pgn) throws IOException {
+        try (PgnReader reader = reader(pgn)) {
+            PgnGame game = reader.readGame();
+            assertNull(reader.readGame());
+            return game;
+        }
+    }
+
+    private static PgnReader reader(String pgn) {
+        return new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+}
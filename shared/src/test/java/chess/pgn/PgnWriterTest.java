@@ -0,0 +1,91 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnWriterTest {
+
+    @Test
+    public void writesExportFormat() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("White", "Anna");
+        tags.put("Annotator", "Quote \" and \\ slash");
+        List<ChessMove> moves = List.of(move(2, 5, 4, 5), move(7, 6, 6, 6), move(2, 4, 4, 4), move(7, 7, 5, 7),
+                move(1, 4, 5, 8));
+        String pgn = write(new PgnGame(tags, new ChessGame(), moves, "1-0"));
+        assertEquals("""
+                [Event "?"]
+                [Site "?"]
+                [Date "?"]
+                [Round "?"]
+                [White "Anna"]
+                [Black "?"]
+                [Result "1-0"]
+                [Annotator "Quote \\" and \\\\ slash"]
+
+                1. e4 f6 2. d4 g5 3. Qh5# 1-0
+
+                """, pgn);
+    }
+
+    @Test
+    public void disambiguatesAndMarksCaptures() throws IOException {
+        ChessGame start = ChessGame.fromFen("4k3/8/8/8/1r3r2/8/4P3/R3K2R b - - 3 30");
+        List<ChessMove> moves = List.of(move(4, 2, 4, 4), move(1, 1, 1, 4), move(4, 4, 2, 4), move(1, 8, 1, 6),
+                move(2, 4, 1, 4));
+        String pgn = write(new PgnGame(Map.of(), start, moves, PgnGame.UNKNOWN_RESULT));
+        assertTrue(pgn.contains("[SetUp \"1\"]\n[FEN \"4k3/8/8/8/1r3r2/8/4P3/R3K2R b - - 3 30\"]\n"), pgn);
+        assertTrue(pgn.endsWith("30... Rbd4 31. Rd1 Rd2 32. Rf1 Rxd1+ *\n\n"), pgn);
+    }
+
+    @Test
+    public void wrapsLongGamesAndReadsBack() throws IOException {
+        List<ChessMove> shuffle = List.of(move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7));
+        List<ChessMove> moves = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            moves.addAll(shuffle);
+        }
+        PgnGame game = new PgnGame(Map.of("Event", "Shuffle"), new ChessGame(), moves, "1/2-1/2");
+        String pgn = write(game);
+        for (String line : pgn.split("\n")) {
+            assertTrue(line.length() < 80, line);
+        }
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            PgnGame read = reader.readGame();
+            assertEquals(moves, read.moves());
+            assertEquals("1/2-1/2", read.result());
+            assertEquals("Shuffle", read.tags().get("Event"));
+        }
+    }
+
+    @Test
+    public void rejectsIllegalMoves() {
+        PgnGame game = new PgnGame(Map.of(), new ChessGame(), List.of(move(2, 5, 5, 5)), PgnGame.UNKNOWN_RESULT);
+        assertThrows(IllegalArgumentException.class, () -> write(game));
+    }
+
+    private static String write(PgnGame game) throws IOException {
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            writer.write(game);
+        }
+        return out.toString();
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,59 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSearchTest {
+
+    @Test
+    public void findsBackRankMate() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """));
+        try (ParallelSearch search = new ParallelSearch(4)) {
+            SearchResult result = search.bestMove(game, SearchLimits.depth(4));
+            assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+            assertEquals(Search.MATE - 1, result.score());
+        }
+    }
+
+    @Test
+    public void timeLimitStopsEveryThread() {
+        ChessGame game = new ChessGame();
+        try (ParallelSearch search = new ParallelSearch(3)) {
+            assertEquals(3, search.threads());
+            for (int i = 0; i < 3; i++) {
+                SearchResult result = search.bestMove(game, SearchLimits.millis(100));
+                assertNotNull(result.bestMove());
+                assertTrue(result.millis() < 1000);
+            }
+        }
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void singleThreadMatchesSearch() {
+        ChessGame game = new ChessGame();
+        try (ParallelSearch search = new ParallelSearch(1)) {
+            SearchResult parallel = search.bestMove(game, SearchLimits.depth(4));
+            SearchResult serial = new Search().bestMove(game, SearchLimits.depth(4));
+            assertEquals(serial.bestMove(), parallel.bestMove());
+            assertEquals(serial.score(), parallel.score());
+            assertEquals(serial.nodes(), parallel.nodes());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0));
+    }
+}
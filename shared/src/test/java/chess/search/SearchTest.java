@@ -0,0 +1,92 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTest {
+
+    @Test
+    public void findsBackRankMate() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """));
+        SearchResult result = new Search().bestMove(game, SearchLimits.depth(4));
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertEquals(Search.MATE - 1, result.score());
+        assertTrue(result.isMate());
+    }
+
+    @Test
+    public void takesHangingQueen() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | | | | | |
+                | | |N| | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        SearchResult result = new Search().bestMove(game, SearchLimits.depth(3));
+        assertEquals(new ChessMove(new ChessPosition(3, 3), new ChessPosition(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 200);
+    }
+
+    @Test
+    public void mateAgainstSideToMoveHasNoMove() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r|n|b| |k|b|n|r|
+                |p|p|p|p| |p|p|p|
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | | | | |P|q|
+                | | | | | |P| | |
+                |P|P|P|P|P| | |P|
+                |R|N|B|Q|K|B|N|R|
+                """));
+        SearchResult result = new Search().bestMove(game, SearchLimits.depth(3));
+        assertNull(result.bestMove());
+        assertEquals(-Search.MATE, result.score());
+    }
+
+    @Test
+    public void limitsStopSearchWithLegalMove() {
+        ChessGame game = new ChessGame();
+        SearchResult byNodes = new Search().bestMove(game, SearchLimits.nodes(2000));
+        assertTrue(game.validMoves(byNodes.bestMove().getStartPosition()).contains(byNodes.bestMove()));
+        assertTrue(byNodes.nodes() < 10000);
+
+        SearchResult byTime = new Search().bestMove(game, SearchLimits.millis(100));
+        assertNotNull(byTime.bestMove());
+        assertTrue(byTime.millis() < 1000);
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void principalVariationIsPlayable() throws InvalidMoveException {
+        SearchResult result = new Search().bestMove(new ChessGame(), SearchLimits.depth(4));
+        assertEquals(4, result.depth());
+        assertEquals(result.bestMove(), result.principalVariation().get(0));
+        ChessGame game = new ChessGame();
+        for (ChessMove move : result.principalVariation()) {
+            game.makeMove(move);
+        }
+    }
+}
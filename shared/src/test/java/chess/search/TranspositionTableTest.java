@@ -0,0 +1,73 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storedEntryIsFound() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = new ChessGame().positionKey();
+        int move = Move.of(12, 28) | Move.DOUBLE_PUSH;
+        table.store(key, 7, TranspositionTable.BOUND_LOWER, -321, move);
+
+        long data = table.probe(key);
+        assertNotEquals(TranspositionTable.MISS, data);
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(data));
+        assertEquals(-321, TranspositionTable.score(data));
+        assertEquals(Move.key(move), TranspositionTable.move(data));
+        assertEquals(TranspositionTable.MISS, table.probe(key + 1));
+    }
+
+    @Test
+    public void sizeIsRoundedDownToPowerOfTwo() {
+        assertEquals(2L << 20, new TranspositionTable(3).sizeInBytes());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    public void deepEntrySurvivesShallowerStores() {
+        TranspositionTable table = new TranspositionTable(1);
+        // same bucket, different keys
+        long deep = 0x0000_0001_0000_0001L;
+        long second = 0x0000_0001_0000_0002L;
+        long third = 0x0000_0001_0000_0003L;
+        table.store(deep, 10, TranspositionTable.BOUND_EXACT, 50, Move.NONE);
+        table.store(second, 2, TranspositionTable.BOUND_UPPER, 0, Move.NONE);
+        table.store(third, 3, TranspositionTable.BOUND_UPPER, 0, Move.NONE);
+
+        assertEquals(10, TranspositionTable.depth(table.probe(deep)));
+        assertEquals(TranspositionTable.MISS, table.probe(second));
+        assertEquals(3, TranspositionTable.depth(table.probe(third)));
+
+        // once a new search starts the old deep entry gives way
+        table.newSearch();
+        table.store(second, 1, TranspositionTable.BOUND_UPPER, 0, Move.NONE);
+        assertEquals(TranspositionTable.MISS, table.probe(deep));
+        assertEquals(1, TranspositionTable.depth(table.probe(second)));
+    }
+
+    @Test
+    public void storeWithoutMoveKeepsOldMove() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.of(6, 21);
+        table.store(42, 4, TranspositionTable.BOUND_LOWER, 10, move);
+        table.store(42, 5, TranspositionTable.BOUND_UPPER, -10, Move.NONE);
+        assertEquals(Move.key(move), TranspositionTable.move(table.probe(42)));
+        assertEquals(5, TranspositionTable.depth(table.probe(42)));
+    }
+
+    @Test
+    public void clearEmptiesTable() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42, 4, TranspositionTable.BOUND_EXACT, 10, Move.NONE);
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+        assertEquals(0, table.hashfull());
+    }
+}
@@ -0,0 +1,80 @@
+package model;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGameAdapterTest {
+
+    private final Gson gson = ChessGameAdapter.gson();
+
+    @Test
+    public void gamesAreWrittenCompactly() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 4), ChessPosition.of(4, 4), null));
+        String json = gson.toJson(game);
+        // 39 bytes of Base64 in quotes
+        assertEquals(54, json.length(), json);
+        assertTrue(json.length() * 10 < new Gson().toJson(game).length());
+        assertEquals(game, gson.fromJson(json, ChessGame.class));
+    }
+
+    @Test
+    public void gamesInsideGameDataUseTheAdapter() {
+        GameData data = new GameData(7, "white", null, "name", new ChessGame());
+        String json = gson.toJson(data);
+        assertFalse(json.contains("board"), json);
+        GameData read = gson.fromJson(json, GameData.class);
+        assertEquals(data, read);
+        assertNull(gson.fromJson(gson.toJson(new GameData(8, null, null, "empty", null)), GameData.class).game());
+    }
+
+    @Test
+    public void readsTheOriginalEightByEightLayout() {
+        StringBuilder rows = new StringBuilder();
+        for (int row = 1; row <= 8; row++) {
+            rows.append(row == 1 ? "[" : ",[");
+            for (int col = 1; col <= 8; col++) {
+                rows.append(col == 1 ? "" : ",");
+                if (row == 1 && col == 5) {
+                    rows.append("{\"type\":\"KING\",\"pieceColor\":\"WHITE\"}");
+                } else if (row == 8 && col == 5) {
+                    rows.append("{\"type\":\"KING\",\"pieceColor\":\"BLACK\"}");
+                } else if (row == 7 && col == 1) {
+                    rows.append("{\"type\":\"PAWN\",\"pieceColor\":\"BLACK\"}");
+                } else {
+                    rows.append("null");
+                }
+            }
+            rows.append("]");
+        }
+        String json = "{\"board\":{\"board\":[" + rows + "]},\"teamTurn\":\"BLACK\"}";
+
+        ChessGame read = gson.fromJson(json, ChessGame.class);
+        assertEquals(ChessGame.TeamColor.BLACK, read.getTeamTurn());
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN),
+                read.getBoard().getPiece(ChessPosition.of(7, 1)));
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                read.getBoard().getPiece(ChessPosition.of(1, 5)));
+        assertNull(read.getBoard().getPiece(ChessPosition.of(2, 5)));
+        assertEquals(2, read.validMoves(ChessPosition.of(7, 1)).size());
+    }
+
+    @Test
+    public void rejectsStringsThatAreNotGames() {
+        assertThrows(JsonParseException.class, () -> gson.fromJson("\"bm90IGEgZ2FtZQ==\"", ChessGame.class));
+    }
+
+    @Test
+    public void rejectsBoardsThatAreNotTheOriginalLayout() {
+        assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"board\":{\"squares\":[]},\"teamTurn\":\"WHITE\"}", ChessGame.class));
+    }
+}